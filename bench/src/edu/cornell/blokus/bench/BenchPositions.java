@@ -0,0 +1,84 @@
+package edu.cornell.blokus.bench;
+
+import com.badlogic.gdx.utils.IntArray;
+import edu.cornell.blokus.Bitboard;
+import edu.cornell.blokus.Brain;
+import edu.cornell.blokus.GameMode;
+import edu.cornell.blokus.Placements;
+import edu.cornell.blokus.PlayerArea;
+import edu.cornell.blokus.Position;
+
+import java.util.Random;
+
+/**
+ * The fixed positions every engine benchmark runs over.
+ *
+ * Each phase is a handful of games played with uniformly random moves from fixed seeds, so the
+ * suite is identical from run to run. Opening and midgame games stop after a fixed number of
+ * turns. Random games end at very different times, so endgame games play on past a minimum
+ * until all colors together have at most ENDGAME_MOVES legal moves and the color to move
+ * still has one.
+ */
+public class BenchPositions {
+    public static final String OPENING = "opening";
+    public static final String MIDGAME = "midgame";
+    public static final String ENDGAME = "endgame";
+
+    public static final long[] SEEDS = new long[]{1, 2, 3, 4};
+    public static final int TILE_SIZE = 23;
+    /** Most legal moves, over all colors, an endgame position may have */
+    public static final int ENDGAME_MOVES = 40;
+
+    public final Position position;
+    public final GameMode.Tile[][] grid;
+    public final PlayerArea[] areas = new PlayerArea[Position.PLAYERS];
+
+    private BenchPositions(long seed, int turns, int maxMoves) {
+        position = new Position();
+        Random random = new Random(seed);
+        IntArray moves = new IntArray();
+        for (int t = 0; t < turns || !inWindow(position, maxMoves); t++) {
+            if (position.isOver()) {
+                throw new IllegalStateException("Game " + seed + " ended before reaching " + maxMoves + " moves");
+            }
+            Brain.generate(position, position.turn, moves);
+            position.play(moves.size == 0 ? Brain.PASS : moves.get(random.nextInt(moves.size)));
+        }
+
+        grid = new GameMode.Tile[Bitboard.SIZE][Bitboard.SIZE];
+        for (int x = 0; x < grid.length; x++) {
+            for (int y = 0; y < grid[x].length; y++) {
+                grid[x][y] = position.get(x, y);
+            }
+        }
+        for (int p = 0; p < Position.PLAYERS; p++) {
+            areas[p] = new PlayerArea(0, 0, 200, 600, TILE_SIZE, GameMode.Tile.values()[p]);
+            for (int i = 0; i < areas[p].gamePieces.length; i++) {
+                if ((position.remaining[p] & (1 << i)) == 0) areas[p].gamePieces[i] = null;
+            }
+        }
+    }
+
+    private static boolean inWindow(Position pos, int maxMoves) {
+        if (Brain.countMoves(pos.turn, pos) == 0) return false;
+        int total = 0;
+        for (int p = 0; p < Position.PLAYERS && total <= maxMoves; p++) total += Brain.countMoves(p, pos);
+        return total <= maxMoves;
+    }
+
+    public static int turns(String phase) {
+        if (phase.equals(OPENING)) return 8;
+        if (phase.equals(MIDGAME)) return 36;
+        if (phase.equals(ENDGAME)) return 40;
+        throw new IllegalArgumentException(phase);
+    }
+
+    public static BenchPositions[] suite(String phase) {
+        Placements.getInstance();
+        BenchPositions[] suite = new BenchPositions[SEEDS.length];
+        for (int i = 0; i < SEEDS.length; i++) {
+            suite[i] = new BenchPositions(SEEDS[i], turns(phase), phase.equals(ENDGAME) ? ENDGAME_MOVES : Integer.MAX_VALUE);
+        }
+        return suite;
+    }
+}
@@ -0,0 +1,191 @@
+package edu.cornell.blokus.bench;
+
+import com.badlogic.gdx.utils.IntArray;
+import edu.cornell.blokus.Bitboard;
+import edu.cornell.blokus.Board;
+import edu.cornell.blokus.Brain;
+import edu.cornell.blokus.GameMode;
+import edu.cornell.blokus.GamePiece;
+import edu.cornell.blokus.Piece;
+import edu.cornell.blokus.Pieces;
+import edu.cornell.blokus.Placements;
+import edu.cornell.blokus.Position;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine hot paths over the BenchPositions suite. Each operation covers every position of
+ * the phase and every color, so scores are comparable across changes to the engine.
+ *
+ * Board keeps its grid in pixel order, so the Board benchmarks replay the suite's moves at
+ * the matching pixel offsets; the scans they time do not depend on the answer. Only
+ * putPieceOnGrid changes its boards, so it alone gets fresh copies before every call, from
+ * FreshBoards; per-call setup would swamp the microsecond benchmarks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+    @Param({BenchPositions.OPENING, BenchPositions.MIDGAME, BenchPositions.ENDGAME})
+    public String phase;
+
+    private BenchPositions[] suite;
+    private IntArray moves = new IntArray();
+    /** (piece, rotation, x, y) quadruples around the anchors of each position, for validAll */
+    private int[][] candidates;
+
+    private Board[] boards;
+    private GamePiece[][] boardPieces;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        suite = BenchPositions.suite(phase);
+        Placements table = Placements.getInstance();
+        Random random = new Random(7);
+
+        candidates = new int[suite.length][];
+        for (int i = 0; i < suite.length; i++) {
+            IntArray quads = new IntArray();
+            for (int p = 0; p < Position.PLAYERS; p++) {
+                Bitboard anchors = suite[i].position.anchors[p];
+                for (int a = anchors.nextSetBit(0); a >= 0; a = anchors.nextSetBit(a + 1)) {
+                    for (int k = 0; k < 8; k++) {
+                        int id = table.cellPlacements[table.cellStart[a] + random.nextInt(table.cellStart[a + 1] - table.cellStart[a])];
+                        quads.addAll(table.piece[id], table.rotation[id], table.x[id], table.y[id]);
+                    }
+                }
+            }
+            candidates[i] = quads.toArray();
+        }
+
+        boards = new Board[suite.length];
+        boardPieces = new GamePiece[suite.length][Position.PLAYERS];
+        for (int i = 0; i < suite.length; i++) {
+            boards[i] = new Board(0, 0, Bitboard.SIZE, Bitboard.SIZE, BenchPositions.TILE_SIZE);
+            load(suite[i].position, boards[i]);
+            for (int p = 0; p < Position.PLAYERS; p++) {
+                Brain.generate(suite[i].position, p, moves);
+                int id = moves.size > 0 ? moves.get(0) : table.pieceStart[0];
+                boardPieces[i][p] = new GamePiece(table.y[id] * BenchPositions.TILE_SIZE, table.x[id] * BenchPositions.TILE_SIZE,
+                        table.rotation[id], Pieces.getInstance().plist[table.piece[id]], GameMode.Tile.values()[p]);
+            }
+        }
+    }
+
+    /** Boards that putPieceOnGrid may change, reloaded from the suite before every call. */
+    @State(Scope.Thread)
+    public static class FreshBoards {
+        private Board[] boards;
+
+        @Setup(Level.Invocation)
+        public void reset(EngineBenchmark bench) {
+            if (boards == null) {
+                boards = new Board[bench.suite.length];
+                for (int i = 0; i < boards.length; i++) {
+                    boards[i] = new Board(0, 0, Bitboard.SIZE, Bitboard.SIZE, BenchPositions.TILE_SIZE);
+                }
+            }
+            for (int i = 0; i < boards.length; i++) load(bench.suite[i].position, boards[i]);
+        }
+    }
+
+    /** Loads a position into a board. */
+    private static void load(Position pos, Board board) {
+        for (int i = 0; i < Bitboard.SIZE; i++) {
+            for (int j = 0; j < Bitboard.SIZE; j++) {
+                board.grid[i][j] = pos.get(i, j);
+                board.statusGrid[i][j] = pos.occupied.get(i, j) ? 0 : -1;
+            }
+        }
+        board.position.copyFrom(pos);
+        board.moves.rebuild();
+    }
+
+    @Benchmark
+    public void getAllFirstMoves(Blackhole bh) {
+        for (BenchPositions b : suite) {
+            for (int p = 0; p < Position.PLAYERS; p++) {
+                bh.consume(Brain.getAllFirstMoves(b.areas[p], b.position));
+            }
+        }
+    }
+
+    @Benchmark
+    public void getAllMoves(Blackhole bh) {
+        for (BenchPositions b : suite) {
+            for (int p = 0; p < Position.PLAYERS; p++) {
+                bh.consume(Brain.getAllMoves(b.areas[p], b.position));
+            }
+        }
+    }
+
+    @Benchmark
+    public void getAllMovesFromGrid(Blackhole bh) {
+        for (BenchPositions b : suite) {
+            for (int p = 0; p < Position.PLAYERS; p++) {
+                bh.consume(Brain.getAllMoves(b.areas[p], b.grid));
+            }
+        }
+    }
+
+    @Benchmark
+    public int generate() {
+        int n = 0;
+        for (BenchPositions b : suite) {
+            for (int p = 0; p < Position.PLAYERS; p++) {
+                Brain.generate(b.position, p, moves);
+                n += moves.size;
+            }
+        }
+        return n;
+    }
+
+    @Benchmark
+    public void getAllCorners(Blackhole bh) {
+        for (BenchPositions b : suite) {
+            for (int p = 0; p < Position.PLAYERS; p++) {
+                bh.consume(Brain.getAllCorners(b.grid, GameMode.Tile.values()[p]));
+            }
+        }
+    }
+
+    @Benchmark
+    public int validAll() {
+        Piece[] plist = Pieces.getInstance().plist;
+        int n = 0;
+        for (int i = 0; i < suite.length; i++) {
+            int[] c = candidates[i];
+            for (int p = 0; p < Position.PLAYERS; p++) {
+                GameMode.Tile color = GameMode.Tile.values()[p];
+                for (int k = 0; k < c.length; k += 4) {
+                    if (Brain.validAll(plist[c[k]], c[k + 1], c[k + 2], c[k + 3], suite[i].position, color)) n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    @Benchmark
+    public int checkValidPlacement() {
+        int n = 0;
+        for (int i = 0; i < boards.length; i++) {
+            for (GamePiece gp : boardPieces[i]) {
+                if (boards[i].checkValidPlacement(gp)) n++;
+            }
+        }
+        return n;
+    }
+
+    @Benchmark
+    public void putPieceOnGrid(FreshBoards fresh) {
+        for (int i = 0; i < fresh.boards.length; i++) {
+            fresh.boards[i].putPieceOnGrid(boardPieces[i][0]);
+        }
+    }
+}
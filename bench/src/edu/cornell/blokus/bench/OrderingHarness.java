@@ -0,0 +1,48 @@
+package edu.cornell.blokus.bench;
+
+import edu.cornell.blokus.ai.Budget;
+import edu.cornell.blokus.ai.MultiplayerSearch;
+import edu.cornell.blokus.ai.SearchStats;
+import edu.cornell.blokus.ai.SimpleEvaluator;
+import edu.cornell.blokus.ai.TranspositionTable;
+
+/**
+ * Nodes a paranoid search visits to reach a fixed depth on the benchmark suite, with and
+ * without killer and history ordering. Both runs start every position from an empty
+ * transposition table and history, so the only difference is the ordering.
+ * Usage: OrderingHarness [depth]
+ */
+public class OrderingHarness {
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        String[] phases = new String[]{BenchPositions.OPENING, BenchPositions.MIDGAME, BenchPositions.ENDGAME};
+        TranspositionTable table = new TranspositionTable(MultiplayerSearch.DEFAULT_TABLE_MB);
+        SearchStats stats = new SearchStats();
+
+        System.out.println("phase     plain nodes   ordered nodes   saved");
+        long plainTotal = 0, orderedTotal = 0;
+        for (String phase : phases) {
+            long plain = 0, ordered = 0;
+            for (BenchPositions b : BenchPositions.suite(phase)) {
+                for (int pass = 0; pass < 2; pass++) {
+                    MultiplayerSearch search = new MultiplayerSearch(MultiplayerSearch.Mode.PARANOID, new SimpleEvaluator(), table);
+                    search.ordering = pass == 1;
+                    search.depthLimit = depth;
+                    table.clear();
+                    search.choose(b.position, Budget.nodes(Long.MAX_VALUE), stats);
+                    if (pass == 0) plain += stats.nodes;
+                    else ordered += stats.nodes;
+                }
+            }
+            print(phase, plain, ordered);
+            plainTotal += plain;
+            orderedTotal += ordered;
+        }
+        print("total", plainTotal, orderedTotal);
+    }
+
+    private static void print(String phase, long plain, long ordered) {
+        System.out.println(String.format("%-8s %12d %15d %6.1f%%", phase, plain, ordered,
+                100.0 * (plain - ordered) / Math.max(plain, 1)));
+    }
+}
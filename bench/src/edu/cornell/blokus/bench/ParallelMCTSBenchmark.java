@@ -0,0 +1,60 @@
+package edu.cornell.blokus.bench;
+
+import edu.cornell.blokus.ai.Budget;
+import edu.cornell.blokus.ai.ParallelMCTS;
+import edu.cornell.blokus.ai.SearchStats;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Playouts per second of the tree-parallel search as the worker count grows. Each operation
+ * is a fixed-time search from a midgame position; the playouts counter is what to compare.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelMCTSBenchmark {
+    public static final long SEARCH_MILLIS = 200;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @State(Scope.Thread)
+    @AuxCounters
+    public static class Counters {
+        public long playouts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            playouts = 0;
+        }
+    }
+
+    private BenchPositions[] suite;
+    private ParallelMCTS search;
+    private final SearchStats stats = new SearchStats();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        suite = BenchPositions.suite(BenchPositions.MIDGAME);
+        search = new ParallelMCTS(threads, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        search.shutdown();
+    }
+
+    @Benchmark
+    public int search(Counters counters) {
+        BenchPositions b = suite[next++ % suite.length];
+        int move = search.choose(b.position, Budget.time(SEARCH_MILLIS), stats);
+        counters.playouts += stats.nodes;
+        return move;
+    }
+}
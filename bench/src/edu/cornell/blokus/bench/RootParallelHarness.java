@@ -0,0 +1,48 @@
+package edu.cornell.blokus.bench;
+
+import edu.cornell.blokus.ai.Budget;
+import edu.cornell.blokus.ai.RootParallelMCTS;
+import edu.cornell.blokus.ai.SearchStats;
+
+/**
+ * Decision quality and playouts per second of RootParallelMCTS for 1, 2, 4 and 8 threads.
+ *
+ * Quality is how often a search agrees with a reference search that ran the largest thread
+ * count for ten times as long, over every position of the benchmark suite.
+ * Usage: RootParallelHarness [millis per move]
+ */
+public class RootParallelHarness {
+    public static final int[] THREADS = new int[]{1, 2, 4, 8};
+
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 200;
+        String[] phases = new String[]{BenchPositions.OPENING, BenchPositions.MIDGAME, BenchPositions.ENDGAME};
+        BenchPositions[] suite = new BenchPositions[phases.length * BenchPositions.SEEDS.length];
+        for (int i = 0; i < phases.length; i++) {
+            System.arraycopy(BenchPositions.suite(phases[i]), 0, suite, i * BenchPositions.SEEDS.length, BenchPositions.SEEDS.length);
+        }
+
+        SearchStats stats = new SearchStats();
+        int[] reference = new int[suite.length];
+        RootParallelMCTS referenceSearch = new RootParallelMCTS(THREADS[THREADS.length - 1], 99);
+        for (int i = 0; i < suite.length; i++) {
+            reference[i] = referenceSearch.choose(suite[i].position, Budget.time(millis * 10), stats);
+        }
+        referenceSearch.shutdown();
+
+        System.out.println("threads  agreement  playouts/s");
+        for (int threads : THREADS) {
+            RootParallelMCTS search = new RootParallelMCTS(threads, 1);
+            int agree = 0;
+            long playouts = 0, nanos = 0;
+            for (int i = 0; i < suite.length; i++) {
+                if (search.choose(suite[i].position, Budget.time(millis), stats) == reference[i]) agree++;
+                playouts += stats.nodes;
+                nanos += stats.nanos;
+            }
+            search.shutdown();
+            System.out.println(String.format("%7d  %8.1f%%  %10d", threads, 100.0 * agree / suite.length,
+                    playouts * 1000000000L / Math.max(nanos, 1)));
+        }
+    }
+}
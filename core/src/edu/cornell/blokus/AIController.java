@@ -1,18 +1,94 @@
 package edu.cornell.blokus;
 
+import edu.cornell.blokus.ai.Budget;
+import edu.cornell.blokus.ai.EndgameSolver;
+import edu.cornell.blokus.ai.GreedySearch;
+import edu.cornell.blokus.ai.MultiplayerSearch;
+import edu.cornell.blokus.ai.ParallelMCTS;
+import edu.cornell.blokus.ai.Search;
+import edu.cornell.blokus.ai.SearchStats;
+import edu.cornell.blokus.ai.SimpleEvaluator;
+
 /**
  * Created by vanyaivan on 5/13/2017.
+ *
+ * Plays one color. Every difficulty answers within its time budget, whatever the position.
+ * EASY looks one ply ahead with noisy scores. MEDIUM runs an iteratively deepened paranoid
+ * search and HARD parallel MCTS, both of which keep improving until the budget runs out.
+ * Once few moves are left on the board, the stronger difficulties first try to solve the game
+ * exactly with half the budget, and only search as usual if that runs out.
  */
 public class AIController {
-    public PlayerArea pa;
+    public enum Difficulty {
+        EASY(100, 12, false), MEDIUM(250, 0, true), HARD(1000, 0, true);
+
+        /** Time allowed per move */
+        public final long millis;
+        /** Random spread added to each score, which makes weaker play */
+        public final int noise;
+        /** Whether to switch to the exact solver in the endgame */
+        public final boolean solve;
 
-    public AIController(PlayerArea pa) {
-        this.pa = pa;
+        Difficulty(long millis, int noise, boolean solve) {
+            this.millis = millis;
+            this.noise = noise;
+            this.solve = solve;
+        }
     }
 
-//    public GamePiece selectPiece(GameMode.Tile[][] grid, int[][] statusGrid){
-//        for(GamePiece gp: pa.gamePieces) {
-//
-//        }
-//    }
+    public final GameMode.Tile color;
+    public final Difficulty difficulty;
+    public final SearchStats stats = new SearchStats();
+
+    private final Search search;
+    private EndgameSolver endgame;
+    private final Position scratch = new Position();
+
+    /** A player whose random choices differ from game to game. */
+    public AIController(GameMode.Tile color, Difficulty difficulty) {
+        this(color, difficulty, System.nanoTime());
+    }
+
+    /** A player that makes the same random choices every time for a given seed. */
+    public AIController(GameMode.Tile color, Difficulty difficulty, long seed) {
+        this.color = color;
+        this.difficulty = difficulty;
+        seed = seed * 31 + color.ordinal();
+        switch (difficulty) {
+            case EASY:
+                search = new GreedySearch(new SimpleEvaluator(), difficulty.noise, seed);
+                break;
+            case MEDIUM:
+                search = new MultiplayerSearch(MultiplayerSearch.Mode.PARANOID, new SimpleEvaluator());
+                break;
+            default:
+                search = new ParallelMCTS(Runtime.getRuntime().availableProcessors(), seed);
+        }
+    }
+
+    /**
+     * Returns a Placements id to play for this color, or Brain.PASS. The cache holds the legal
+     * moves of every color in pos, so a color with one move or none answers at once and the
+     * endgame test only adds up list sizes.
+     */
+    public int selectMove(Position pos, MoveCache moves) {
+        int player = color.ordinal();
+        if (moves.size(player) <= 1) {
+            stats.reset();
+            return moves.size(player) == 0 ? Brain.PASS : moves.get(player, 0);
+        }
+        scratch.copyFrom(pos);
+        scratch.turn = color.ordinal();
+        scratch.passes = 0;
+        long millis = difficulty.millis;
+        int total = 0;
+        for (int p = 0; p < Position.PLAYERS; p++) total += moves.size(p);
+        if (difficulty.solve && total <= EndgameSolver.DEFAULT_MOVES) {
+            if (endgame == null) endgame = new EndgameSolver();
+            int move = endgame.choose(scratch, Budget.time(millis / 2), stats);
+            if (endgame.solved) return move;
+            millis -= millis / 2;
+        }
+        return search.choose(scratch, Budget.time(millis), stats);
+    }
 }
@@ -0,0 +1,102 @@
+package edu.cornell.blokus;
+
+/**
+ * A set of cells on the 20x20 board, packed into seven longs.
+ *
+ * Cell (x,y) is bit x*20+y, which matches the grid[x][y] layout used by Brain.
+ * Bits 400 and above are always zero.
+ */
+public class Bitboard {
+    public static final int SIZE = 20;
+    public static final int CELLS = SIZE * SIZE;
+    public static final int WORDS = (CELLS + 63) / 64;
+
+    /** Every cell on the board */
+    public static final long[] BOARD = new long[WORDS];
+
+    static {
+        for (int i = 0; i < CELLS; i++) {
+            BOARD[i >>> 6] |= 1L << i;
+        }
+    }
+
+    public final long[] words = new long[WORDS];
+
+    public Bitboard() {
+    }
+
+    public static int index(int x, int y) {
+        return x * SIZE + y;
+    }
+
+    public boolean get(int i) {
+        return (words[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public boolean get(int x, int y) {
+        return get(x * SIZE + y);
+    }
+
+    public void set(int i) {
+        words[i >>> 6] |= 1L << i;
+    }
+
+    public void clear(int i) {
+        words[i >>> 6] &= ~(1L << i);
+    }
+
+    public void clear() {
+        for (int k = 0; k < WORDS; k++) words[k] = 0;
+    }
+
+    public void copyFrom(Bitboard other) {
+        System.arraycopy(other.words, 0, words, 0, WORDS);
+    }
+
+    public void or(Bitboard other) {
+        for (int k = 0; k < WORDS; k++) words[k] |= other.words[k];
+    }
+
+    public void and(Bitboard other) {
+        for (int k = 0; k < WORDS; k++) words[k] &= other.words[k];
+    }
+
+    public boolean isEmpty() {
+        for (int k = 0; k < WORDS; k++) {
+            if (words[k] != 0) return false;
+        }
+        return true;
+    }
+
+    public int cardinality() {
+        int n = 0;
+        for (int k = 0; k < WORDS; k++) n += Long.bitCount(words[k]);
+        return n;
+    }
+
+    /** Returns the first set cell at or after from, or -1 if there is none. */
+    public int nextSetBit(int from) {
+        if (from >= CELLS) return -1;
+        int k = from >>> 6;
+        long w = words[k] & (-1L << from);
+        while (true) {
+            if (w != 0) return (k << 6) + Long.numberOfTrailingZeros(w);
+            if (++k == WORDS) return -1;
+            w = words[k];
+        }
+    }
+
+    /** Returns the n-th set cell, counting from zero, or -1 if there are not that many. */
+    public int select(int n) {
+        for (int k = 0; k < WORDS; k++) {
+            long w = words[k];
+            int c = Long.bitCount(w);
+            if (n < c) {
+                for (; n > 0; n--) w &= w - 1;
+                return (k << 6) + Long.numberOfTrailingZeros(w);
+            }
+            n -= c;
+        }
+        return -1;
+    }
+}
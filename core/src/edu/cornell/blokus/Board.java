@@ -4,8 +4,10 @@ package edu.cornell.blokus;
  * Created by vanyaivan on 5/13/2017.
  */
 public class Board {
-    public static GameMode.Tile[][] grid;
-    public static int[][] statusGrid;
+    public GameMode.Tile[][] grid;
+    public int[][] statusGrid;
+    public Position position;
+    public MoveCache moves;
     public int width, height;
     public int gx, gy;
     public int tileSize;
@@ -18,6 +20,8 @@ public class Board {
         this.tileSize = tileSize;
         grid = new GameMode.Tile[height][width];
         statusGrid = new int[height][width];
+        position = new Position();
+        moves = new MoveCache(position);
 
 
         for(int i=0; i<height; i++){
@@ -36,21 +40,57 @@ public class Board {
 
 
     public void putPieceOnGrid(GamePiece gp) {
+        Bitboard cells = new Bitboard();
         for (int i = 0; i < height; i ++) {
             for (int j = 0; j < width; j++) {
                 int setTile = gp.isContained(j * tileSize + gx + tileSize/2, i * tileSize + gy + tileSize/2, tileSize);
                 if (setTile != -1 && (grid[i][j] == GameMode.Tile.GREEN || grid[i][j] == GameMode.Tile.BLANK )){
                     if (setTile == 0) {
+                        if (grid[i][j] == GameMode.Tile.BLANK) {
+                            cells.set(Bitboard.index(i, j));
+                        }
                         grid[i][j] = gp.tile;
                     }
                     statusGrid[i][j] = setTile;
                 }
             }
         }
+
+        int id = Placements.getInstance().match(gp.template.index, cells);
+        if (id >= 0) {
+            moves.place(id, gp.tile.ordinal());
+        }
+        else {
+            for (int c = cells.nextSetBit(0); c >= 0; c = cells.nextSetBit(c + 1)) {
+                position.set(c / Bitboard.SIZE, c % Bitboard.SIZE, gp.tile);
+            }
+            moves.rebuild();
+        }
     }
 
 
 
+    /**
+     * Puts a placement chosen by the engine on the grid, in grid coordinates. Only the solid
+     * cells change: statusGrid holds the human player's own edges and corners, which another
+     * color's piece does not affect.
+     */
+    public void placeMove(int id, GameMode.Tile tile) {
+        Placements table = Placements.getInstance();
+        int w = table.word[id];
+        int b = id * Placements.WINDOW;
+        for (int k = 0; k < Placements.WINDOW; k++) {
+            for (long cells = table.solid[b + k]; cells != 0; cells &= cells - 1) {
+                int c = ((w + k) << 6) + Long.numberOfTrailingZeros(cells);
+                int i = c / Bitboard.SIZE;
+                int j = c % Bitboard.SIZE;
+                grid[i][j] = tile;
+                statusGrid[i][j] = 0;
+            }
+        }
+        moves.place(id, tile.ordinal());
+    }
+
     public boolean checkValidPlacement(GamePiece gp) {
         int greenCount = 0;
         int blueCount = 0;
@@ -73,6 +113,6 @@ public class Board {
                 }
             }
         }
-        return greenCount > 0 && gp.template.solids[0].length == blueCount;
+        return greenCount > 0 && gp.template.size == blueCount;
     }
 }
@@ -1,6 +1,7 @@
 package edu.cornell.blokus;
 
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
 
 /**
  * Created by Tomasz on 5/12/2017.
@@ -11,166 +12,174 @@ public class Brain {
 
      */
 
+    /*
+     * Moves are Placements ids, which decode to piece, rotation and origin through the
+     * Placements tables. GamePieces are only built for the UI.
+     */
+    public static final int PASS = -1;
+
     public static Array<GamePiece> getAllFirstMoves(PlayerArea pa, GameMode.Tile[][] grid){
-        int ox = 0, oy = 0;
-
-        switch(pa.playerColor){
-            case BLUE:
-                ox = -1;
-                oy = -1;
-                break;
-            case RED:
-                ox = 20;
-                oy = -1;
-                break;
-            case GREEN:
-                ox = 20;
-                oy = 20;
-                break;
-            case YELLOW:
-                ox = -1;
-                oy = 20;
-                break;
-        }
+        return getAllFirstMoves(pa, new Position(grid));
+    }
+
+    public static Array<GamePiece> getAllFirstMoves(PlayerArea pa, Position pos){
+        Placements table = Placements.getInstance();
+        int player = pa.playerColor.ordinal();
+        int remaining = remaining(pa);
+        int start = Position.START[player];
 
         Array<GamePiece> possibleMoves  = new Array<GamePiece>();
-        for(GamePiece gp : pa.gamePieces){
-            if(gp != null) {
-                Piece p = gp.template;
-                for (int i = 0; i < p.rotations; i++) {
-                    for (int j = 0; j < p.corners[i].length; j++) {
-                        Pair pair = p.corners[i][j];
-                        int x = ox - pair.x;
-                        int y = oy - pair.y;
-                        if (validPartial(p, i, x, y, grid, pa.playerColor)) {
-                            possibleMoves.add(new GamePiece(x, y, i, p, pa.playerColor));
-                        }
-                    }
-                }
+        for(int k = table.cellStart[start]; k < table.cellStart[start+1]; k++){
+            int id = table.cellPlacements[k];
+            if((remaining & (1 << table.piece[id])) != 0 && table.fits(id, pos, player)){
+                possibleMoves.add(table.toGamePiece(id, pa.playerColor));
             }
         }
         return possibleMoves;
     }
 
     public static boolean validPartial(Piece p, int rot, int x, int y, GameMode.Tile[][] grid, GameMode.Tile color){
-        for(int i=0; i<p.solids[rot].length; i++){
-            Pair pair = p.solids[rot][i];
-            int nx = pair.x + x;
-            int ny = pair.y + y;
-            if(nx < 0 || nx >= 20 || ny < 0 || ny >= 20){
-                return false;
-            }
-            else if(grid[nx][ny] != GameMode.Tile.BLANK){
-                return false;
-            }
-        }
-
-        for(int i=0; i<p.edges[rot].length; i++){
-            Pair pair = p.edges[rot][i];
-            int nx = pair.x + x;
-            int ny = pair.y + y;
-            if(nx >= 0 && nx < 20 && ny >= 0 && ny < 20){
-                if(grid[nx][ny] == color){
-                    return false;
-                }
-            }
-        }
+        return validPartial(p, rot, x, y, new Position(grid), color);
+    }
 
-        return true;
+    /*
+     * Checks that the piece fits on blank cells and does not share an edge with its own color.
+     */
+    public static boolean validPartial(Piece p, int rot, int x, int y, Position pos, GameMode.Tile color){
+        Placements table = Placements.getInstance();
+        int id = table.find(p.index, rot, x, y);
+        return id >= 0 && table.fits(id, pos, color.ordinal());
     }
 
     public static Array<GamePiece> getAllMoves(PlayerArea pa, GameMode.Tile[][] grid){
-        Array<Pair> corners = getAllCorners(grid, pa.playerColor);
+        return getAllMoves(pa, new Position(grid));
+    }
 
+    public static Array<GamePiece> getAllMoves(PlayerArea pa, Position pos){
+        IntArray moves = new IntArray();
+        generate(pos, pa.playerColor.ordinal(), remaining(pa), moves);
 
-        Array<GamePiece> possibleMoves  = new Array<GamePiece>();
-        for(Pair co : corners){
-            for(GamePiece gp : pa.gamePieces){
-                if(gp != null){
-                    Piece p = gp.template;
-                    for(int i=0; i<p.rotations; i++){
-                        for(int j=0; j<p.solids[i].length; j++){
-                            Pair pair = p.solids[i][j];
-                            int x = co.x - pair.x;
-                            int y = co.y - pair.y;
-                            if(validAll(p, i, x, y, grid, pa.playerColor)){
-                                possibleMoves.add(new GamePiece(x, y, i, p, pa.playerColor));
-                            }
-                        }
-                    }
-                }
-            }
+        Array<GamePiece> possibleMoves  = new Array<GamePiece>(moves.size);
+        for(int i=0; i<moves.size; i++){
+            possibleMoves.add(Placements.getInstance().toGamePiece(moves.get(i), pa.playerColor));
         }
         return possibleMoves;
     }
 
-    public static boolean validAll(Piece p, int rot, int x, int y, GameMode.Tile[][] grid, GameMode.Tile color){
-        for(int i=0; i<p.solids[rot].length; i++){
-            Pair pair = p.solids[rot][i];
-            int nx = pair.x + x;
-            int ny = pair.y + y;
-            if(nx < 0 || nx >= 20 || ny < 0 || ny >= 20){
-                return false;
+    /*
+     * Legal moves for the UI straight from a MoveCache, without generating anything.
+     */
+    public static Array<GamePiece> getAllMoves(PlayerArea pa, MoveCache cache){
+        int player = pa.playerColor.ordinal();
+        int remaining = remaining(pa);
+
+        Array<GamePiece> possibleMoves  = new Array<GamePiece>(cache.size(player));
+        for(int i=0; i<cache.size(player); i++){
+            int id = cache.get(player, i);
+            if((remaining & (1 << Placements.getInstance().piece[id])) != 0){
+                possibleMoves.add(Placements.getInstance().toGamePiece(id, pa.playerColor));
             }
-            else if(grid[nx][ny] != GameMode.Tile.BLANK){
-                return false;
+        }
+        return possibleMoves;
+    }
+
+    /*
+     * Fills moves with every legal placement for the player, as Placements ids. Nothing is
+     * allocated as long as moves has room; search code should reuse lists from MoveLists.
+     */
+    public static void generate(Position pos, int player, IntArray moves){
+        generate(pos, player, pos.remaining[player], moves);
+    }
+
+    /*
+     * Only placements listed under an anchor are tried, so each already touches its own color
+     * at a corner and only needs the fits check. Each one is added once, at the lowest anchor
+     * it covers.
+     */
+    public static void generate(Position pos, int player, int remaining, IntArray moves){
+        Placements table = Placements.getInstance();
+        Bitboard anchors = pos.anchors[player];
+        moves.clear();
+        for(int a = anchors.nextSetBit(0); a >= 0; a = anchors.nextSetBit(a+1)){
+            for(int k = table.cellStart[a]; k < table.cellStart[a+1]; k++){
+                int id = table.cellPlacements[k];
+                if((remaining & (1 << table.piece[id])) != 0 && !table.coversBelow(id, anchors, a)
+                        && table.fits(id, pos, player)){
+                    moves.add(id);
+                }
             }
         }
+    }
 
-        for(int i=0; i<p.edges[rot].length; i++){
-            Pair pair = p.edges[rot][i];
-            int nx = pair.x + x;
-            int ny = pair.y + y;
-            if(nx >= 0 && nx < 20 && ny >= 0 && ny < 20){
-                if(grid[nx][ny] == color){
-                    return false;
+    /*
+     * Number of unique legal placements for the player, without building any moves.
+     */
+    public static int countMoves(int player, Position pos){
+        Placements table = Placements.getInstance();
+        Bitboard anchors = pos.anchors[player];
+        int remaining = pos.remaining[player];
+        int count = 0;
+        for(int a = anchors.nextSetBit(0); a >= 0; a = anchors.nextSetBit(a+1)){
+            for(int k = table.cellStart[a]; k < table.cellStart[a+1]; k++){
+                int id = table.cellPlacements[k];
+                if((remaining & (1 << table.piece[id])) != 0 && !table.coversBelow(id, anchors, a)
+                        && table.fits(id, pos, player)){
+                    count++;
                 }
             }
         }
+        return count;
+    }
 
-        for(int i=0; i<p.corners[rot].length; i++){
-            Pair pair = p.corners[rot][i];
-            int nx = pair.x + x;
-            int ny = pair.y + y;
-            if(nx >= 0 && nx < 20 && ny >= 0 && ny < 20){
-                if(grid[nx][ny] == color) {
+    /*
+     * True as soon as one legal placement is found. Duplicates do not matter here, so
+     * placements are not checked against lower anchors.
+     */
+    public static boolean hasAnyMove(int player, Position pos){
+        Placements table = Placements.getInstance();
+        Bitboard anchors = pos.anchors[player];
+        int remaining = pos.remaining[player];
+        for(int a = anchors.nextSetBit(0); a >= 0; a = anchors.nextSetBit(a+1)){
+            for(int k = table.cellStart[a]; k < table.cellStart[a+1]; k++){
+                int id = table.cellPlacements[k];
+                if((remaining & (1 << table.piece[id])) != 0 && table.fits(id, pos, player)){
                     return true;
                 }
             }
         }
-
         return false;
     }
 
+    public static boolean validAll(Piece p, int rot, int x, int y, GameMode.Tile[][] grid, GameMode.Tile color){
+        return validAll(p, rot, x, y, new Position(grid), color);
+    }
+
+    public static boolean validAll(Piece p, int rot, int x, int y, Position pos, GameMode.Tile color){
+        Placements table = Placements.getInstance();
+        int id = table.find(p.index, rot, x, y);
+        return id >= 0 && table.fits(id, pos, color.ordinal()) && table.touches(id, pos, color.ordinal());
+    }
+
     public static Array<Pair> getAllCorners(GameMode.Tile[][] grid, GameMode.Tile color){
+        Bitboard anchors = new Position(grid).anchors[color.ordinal()];
+
         Array<Pair> pairs = new Array<Pair>();
-        for(int x=0; x<20; x++){
-            for(int y=0; y<20; y++){
-                if(grid[x][y] == GameMode.Tile.BLANK){
-                    if(x>0 && grid[x-1][y] == color) continue;
-                    if(x<19 && grid[x+1][y] == color) continue;
-                    if(y>0 && grid[x][y-1] == color) continue;
-                    if(y<19 && grid[x][y+1] == color) continue;
-
-                    if(x>0 && y>0 && grid[x-1][y-1] == color){
-                        pairs.add(new Pair(x,y));
-                        continue;
-                    }
-                    if(x<19 && y>0 && grid[x+1][y-1] == color){
-                        pairs.add(new Pair(x,y));
-                        continue;
-                    }
-                    if(x>0 && y<19 && grid[x-1][y+1] == color){
-                        pairs.add(new Pair(x,y));
-                        continue;
-                    }
-                    if(x<19 && y<19 && grid[x+1][y+1] == color){
-                        pairs.add(new Pair(x,y));
-                        continue;
-                    }
-                }
-            }
+        for(int a = anchors.nextSetBit(0); a >= 0; a = anchors.nextSetBit(a+1)){
+            pairs.add(new Pair(a / Bitboard.SIZE, a % Bitboard.SIZE));
         }
         return pairs;
     }
+
+    /*
+     * Pieces still in the player area, as a bit mask over Piece.index.
+     */
+    public static int remaining(PlayerArea pa){
+        int mask = 0;
+        for(GamePiece gp : pa.gamePieces){
+            if(gp != null){
+                mask |= 1 << gp.template.index;
+            }
+        }
+        return mask;
+    }
 }
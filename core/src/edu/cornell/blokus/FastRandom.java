@@ -0,0 +1,31 @@
+package edu.cornell.blokus;
+
+/**
+ * Small, fast random number generator (SplitMix64) for playouts and other hot loops.
+ *
+ * Unlike java.util.Random it is not synchronized and keeps its state in one plain long, so
+ * every thread should own its instance.
+ */
+public class FastRandom {
+    private long state;
+
+    public FastRandom(long seed) {
+        state = seed;
+    }
+
+    public long nextLong() {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Returns a value in [0, bound), for a positive bound. */
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+}
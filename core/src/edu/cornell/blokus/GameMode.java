@@ -17,6 +17,10 @@ import com.badlogic.gdx.graphics.*;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.utils.Array;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
 
 /**
  * The primary controller class for the game.
@@ -44,12 +48,13 @@ public class GameMode implements ModeController {
 		BLUE, RED, GREEN, YELLOW, BLANK
 	}
 
-	public static final int H = Gdx.graphics.getHeight();
-	public static final int W = Gdx.graphics.getWidth();
 	public static final int GRID_HEIGHT = 20;
 	public static final int GRID_WIDTH = 20;
 	public static final int TILE_SIZE = 23;
-	public static final int GRID_X = (W - GRID_WIDTH * TILE_SIZE) / 2, GRID_Y = (H - GRID_HEIGHT * TILE_SIZE)/2;
+
+	/** Window size and board placement, fixed when the mode is created */
+	public final int H, W;
+	public final int GRID_X, GRID_Y;
 
 	public static final int P_XMARGIN = 24;
 	public static final int P_YMARGIN = 24;
@@ -64,6 +69,20 @@ public class GameMode implements ModeController {
 
 	protected Array<GamePiece> allGamePieces = new Array <GamePiece>();
 
+	/** Computer players for the other three seats, in turn order */
+	protected AIController[] aiPlayers;
+	/** Set from the human's move until the last computer seat has answered */
+	protected boolean aiTurn = false;
+	/** Runs the computer seats' searches so the window keeps drawing while they think */
+	private final ExecutorService aiThread = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, "ai");
+			t.setDaemon(true);
+			return t;
+		}
+	});
+
 	/** 
 	 * Preloads the texture and sound information for the game.
 	 * 
@@ -165,12 +184,21 @@ public class GameMode implements ModeController {
 	 * @param height The height of the game window
 	 */
 	public GameMode(float width, float height) {
+		W = (int)width;
+		H = (int)height;
+		GRID_X = (W - GRID_WIDTH * TILE_SIZE) / 2;
+		GRID_Y = (H - GRID_HEIGHT * TILE_SIZE) / 2;
 		inputController  = new InputController();
 		Gdx.input.setInputProcessor(inputController);
 		board = new Board(GRID_X, GRID_Y,GRID_WIDTH, GRID_HEIGHT,TILE_SIZE);
 
 		initializePlayerArea();
-		Testing.init(p2_area, board.grid);
+		Testing.init(p2_area, board);
+
+		aiPlayers = new AIController[]{
+				new AIController(Tile.RED, AIController.Difficulty.MEDIUM),
+				new AIController(Tile.GREEN, AIController.Difficulty.MEDIUM),
+				new AIController(Tile.YELLOW, AIController.Difficulty.MEDIUM)};
 	}
 
 
@@ -205,10 +233,12 @@ public class GameMode implements ModeController {
 
         // process player input
 		if (inputController.clicked) {
-            if (board.inGrid(pos.x, pos.y) && mousePiece != null && board.checkValidPlacement(mousePiece)) {
+            if (!aiTurn && board.inGrid(pos.x, pos.y) && mousePiece != null && board.checkValidPlacement(mousePiece)) {
                 board.putPieceOnGrid(mousePiece);
 				p1_area.removePiece(selected);
 				allGamePieces.removeValue(selected, true);
+				aiTurn = true;
+				think(0);
             }
             selected = p1_area.getPieceAt(pos.x,  pos.y);
             if (selected != null ) {
@@ -230,14 +260,52 @@ public class GameMode implements ModeController {
 			Testing.getPrevPiece();
 		}
 		if(inputController.keyDown(Input.Keys.W)){
-			Testing.possibleMoves = Brain.getAllMoves(p1_area, board.grid);
+			Testing.possibleMoves = Brain.getAllMoves(p1_area, board.moves);
 			System.out.println(Testing.possibleMoves.size);
 		}
 
+		// both inputs
+	}
 
-        // process ai input
+	/**
+	 * Searches for a computer seat on the AI thread. The move is placed back on the render
+	 * thread, which then starts the next seat, so the board never changes during a search.
+	 */
+	private void think(final int seat) {
+		if (seat == aiPlayers.length) {
+			aiTurn = false;
+			return;
+		}
+		final AIController ai = aiPlayers[seat];
+		aiThread.execute(new Runnable() {
+			@Override
+			public void run() {
+				final int move = ai.selectMove(board.position, board.moves);
+				Gdx.app.postRunnable(new Runnable() {
+					@Override
+					public void run() {
+						if (move != Brain.PASS) {
+							board.placeMove(move, ai.color);
+							if (ai.color == p2_area.playerColor) {
+								removeFromArea(p2_area, Placements.getInstance().piece[move]);
+							}
+						}
+						Gdx.app.debug("AIController", ai.color + ": " + ai.stats);
+						think(seat + 1);
+					}
+				});
+			}
+		});
+	}
 
-		// both inputs
+	private void removeFromArea(PlayerArea area, int piece) {
+		for (GamePiece gp : area.gamePieces) {
+			if (gp != null && gp.template.index == piece) {
+				area.removePiece(gp);
+				allGamePieces.removeValue(gp, true);
+				return;
+			}
+		}
 	}
 
 	/**
@@ -286,17 +354,16 @@ public class GameMode implements ModeController {
         }
 
         if(Testing.gamePiece != null){
-			for(int i=0; i<Testing.gamePiece.template.solids[Testing.gamePiece.rotation].length; i++){
-				Pair pair = Testing.gamePiece.template.solids[Testing.gamePiece.rotation][i];
-				canvas.draw(blueTile, Color.WHITE,0,0, GRID_X+(pair.x+Testing.gamePiece.x)*TILE_SIZE, GRID_Y+(pair.y+Testing.gamePiece.y)*TILE_SIZE, 0, TILE_SIZE/32.0f, TILE_SIZE/32.0f);
+			GamePiece gp = Testing.gamePiece;
+			Piece piece = gp.template;
+			for(int i=piece.first(gp.rotation, Piece.SOLID); i<piece.end(gp.rotation, Piece.SOLID); i++){
+				canvas.draw(blueTile, Color.WHITE,0,0, GRID_X+(piece.dx[i]+gp.x)*TILE_SIZE, GRID_Y+(piece.dy[i]+gp.y)*TILE_SIZE, 0, TILE_SIZE/32.0f, TILE_SIZE/32.0f);
 			}
-			for(int t=0; t<Testing.gamePiece.template.corners[Testing.gamePiece.rotation].length; t++){
-				Pair pair = Testing.gamePiece.template.corners[Testing.gamePiece.rotation][t];
-				canvas.draw(greenTile, new Color(1,1,1,0.6f), 0,0,GRID_X+(pair.x+Testing.gamePiece.x)*TILE_SIZE, GRID_Y+(pair.y+Testing.gamePiece.y)*TILE_SIZE,0,TILE_SIZE/32.0f, TILE_SIZE/32.0f);
+			for(int t=piece.first(gp.rotation, Piece.CORNER); t<piece.end(gp.rotation, Piece.CORNER); t++){
+				canvas.draw(greenTile, new Color(1,1,1,0.6f), 0,0,GRID_X+(piece.dx[t]+gp.x)*TILE_SIZE, GRID_Y+(piece.dy[t]+gp.y)*TILE_SIZE,0,TILE_SIZE/32.0f, TILE_SIZE/32.0f);
 			}
-			for(int t=0; t<Testing.gamePiece.template.edges[Testing.gamePiece.rotation].length; t++){
-				Pair pair = Testing.gamePiece.template.edges[Testing.gamePiece.rotation][t];
-				canvas.draw(redTile, new Color(1,1,1,0.6f), 0,0,GRID_X+(pair.x+Testing.gamePiece.x)*TILE_SIZE, GRID_Y+(pair.y+Testing.gamePiece.y)*TILE_SIZE,0,TILE_SIZE/32.0f, TILE_SIZE/32.0f);
+			for(int t=piece.first(gp.rotation, Piece.EDGE); t<piece.end(gp.rotation, Piece.EDGE); t++){
+				canvas.draw(redTile, new Color(1,1,1,0.6f), 0,0,GRID_X+(piece.dx[t]+gp.x)*TILE_SIZE, GRID_Y+(piece.dy[t]+gp.y)*TILE_SIZE,0,TILE_SIZE/32.0f, TILE_SIZE/32.0f);
 			}
 		}
 
@@ -306,20 +373,18 @@ public class GameMode implements ModeController {
 	public void drawGamePiece(GameCanvas canvas, GamePiece gp, boolean highlight) {
 	    if (gp == null) return;
 
-		for(int t=0; t<gp.template.solids[gp.rotation].length; t++){
-			Pair tile = gp.template.solids[gp.rotation][t];
-			canvas.draw(getTexture(gp.tile), Color.WHITE, 0,0,gp.x+tile.x*TILE_SIZE, gp.y+tile.y*TILE_SIZE,0,TILE_SIZE/32.0f, TILE_SIZE/32.0f);
+		Piece piece = gp.template;
+		for(int t=piece.first(gp.rotation, Piece.SOLID); t<piece.end(gp.rotation, Piece.SOLID); t++){
+			canvas.draw(getTexture(gp.tile), Color.WHITE, 0,0,gp.x+piece.dx[t]*TILE_SIZE, gp.y+piece.dy[t]*TILE_SIZE,0,TILE_SIZE/32.0f, TILE_SIZE/32.0f);
 		}
 
 		if (highlight) return;
 
-		for(int t=0; t<gp.template.corners[gp.rotation].length; t++){
-			Pair tile = gp.template.corners[gp.rotation][t];
-			canvas.draw(getTexture(gp.tile), new Color(1,1,1,0.5f), 0,0,gp.x+tile.x*TILE_SIZE, gp.y+tile.y*TILE_SIZE,0,TILE_SIZE/32.0f, TILE_SIZE/32.0f);
+		for(int t=piece.first(gp.rotation, Piece.CORNER); t<piece.end(gp.rotation, Piece.CORNER); t++){
+			canvas.draw(getTexture(gp.tile), new Color(1,1,1,0.5f), 0,0,gp.x+piece.dx[t]*TILE_SIZE, gp.y+piece.dy[t]*TILE_SIZE,0,TILE_SIZE/32.0f, TILE_SIZE/32.0f);
 		}
-		for(int t=0; t<gp.template.edges[gp.rotation].length; t++){
-			Pair tile = gp.template.edges[gp.rotation][t];
-			canvas.draw(getTexture(gp.tile), new Color(1,1,1,0.2f), 0,0,gp.x+tile.x*TILE_SIZE, gp.y+tile.y*TILE_SIZE,0,TILE_SIZE/32.0f, TILE_SIZE/32.0f);
+		for(int t=piece.first(gp.rotation, Piece.EDGE); t<piece.end(gp.rotation, Piece.EDGE); t++){
+			canvas.draw(getTexture(gp.tile), new Color(1,1,1,0.2f), 0,0,gp.x+piece.dx[t]*TILE_SIZE, gp.y+piece.dy[t]*TILE_SIZE,0,TILE_SIZE/32.0f, TILE_SIZE/32.0f);
 		}
 	}
 
@@ -327,7 +392,7 @@ public class GameMode implements ModeController {
 	 * Dispose of all (non-static) resources allocated to this mode.
 	 */
 	public void dispose() {
-		// Garbage collection here is sufficient.  Nothing to do
+		aiThread.shutdownNow();
 	}
 	
 	/**
@@ -35,26 +35,17 @@ public class GamePiece {
         y = (int)y1;
     }
 
+    /** Kind of the piece's cell under a point (Piece.SOLID, EDGE or CORNER), or -1 for none. */
     public int isContained(float x1, float y1, int tileSize) {
         float tempx = (x1 - x) / (float)tileSize;
         float tempy = (y1 - y) / (float)tileSize;
-        Pair tile;
-        for (int i = 0; i < template.solids[rotation].length; i++) {
-            tile = template.solids[rotation][i];
-            if (tempx > tile.x && tempx < tile.x + 1 && tempy > tile.y && tempy < tile.y + 1) {
-                return 0;
-            }
-        }
-        for (int i = 0; i < template.edges[rotation].length; i++) {
-            tile = template.edges[rotation][i];
-            if (tempx > tile.x && tempx < tile.x + 1 && tempy > tile.y && tempy < tile.y + 1) {
-                return 1;
-            }
-        }
-        for (int i = 0; i < template.corners[rotation].length; i++) {
-            tile = template.corners[rotation][i];
-            if (tempx > tile.x && tempx < tile.x+1 && tempy > tile.y && tempy < tile.y+1) {
-                return 2;
+        for (int kind = Piece.SOLID; kind < Piece.KINDS; kind++) {
+            for (int i = template.first(rotation, kind); i < template.end(rotation, kind); i++) {
+                int tx = template.dx[i];
+                int ty = template.dy[i];
+                if (tempx > tx && tempx < tx + 1 && tempy > ty && tempy < ty + 1) {
+                    return kind;
+                }
             }
         }
         return -1;
@@ -0,0 +1,114 @@
+package edu.cornell.blokus;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * The legal moves of every color in a Position, kept up to date as placements are played.
+ *
+ * Play through place() rather than on the Position directly. After a placement only the moves
+ * that overlap it, the mover's moves along its new edges and the mover's moves with the piece
+ * just used are dropped, and only the mover's new anchors are searched for additions.
+ */
+public class MoveCache {
+    public final Position position;
+
+    private final Placements table;
+    private final int[][] moves = new int[Position.PLAYERS][];
+    private final int[][] slot = new int[Position.PLAYERS][];
+    private final int[] size = new int[Position.PLAYERS];
+    private final long[] before = new long[Placements.WINDOW];
+
+    public MoveCache(Position position) {
+        this.position = position;
+        table = Placements.getInstance();
+        for (int p = 0; p < Position.PLAYERS; p++) {
+            moves[p] = new int[64];
+            slot[p] = new int[table.count];
+        }
+        rebuild();
+    }
+
+    /** Regenerates every list from scratch, for when the position was changed behind our back. */
+    public void rebuild() {
+        IntArray generated = new IntArray();
+        for (int p = 0; p < Position.PLAYERS; p++) {
+            for (int i = 0; i < size[p]; i++) slot[p][moves[p][i]] = 0;
+            size[p] = 0;
+            Brain.generate(position, p, generated);
+            for (int i = 0; i < generated.size; i++) add(p, generated.get(i));
+        }
+    }
+
+    public int size(int player) {
+        return size[player];
+    }
+
+    public int get(int player, int i) {
+        return moves[player][i];
+    }
+
+    /** Plays a placement on the position and updates every list around it. */
+    public void place(int id, int player) {
+        int w = table.word[id];
+        int b = id * Placements.WINDOW;
+        long[] anchors = position.anchors[player].words;
+        System.arraycopy(anchors, w, before, 0, Placements.WINDOW);
+
+        position.place(id, player);
+
+        for (int k = 0; k < Placements.WINDOW; k++) {
+            for (long m = table.solid[b + k]; m != 0; m &= m - 1) {
+                int cell = ((w + k) << 6) + Long.numberOfTrailingZeros(m);
+                for (int j = table.cellStart[cell]; j < table.cellStart[cell + 1]; j++) {
+                    for (int p = 0; p < Position.PLAYERS; p++) remove(p, table.cellPlacements[j]);
+                }
+            }
+            for (long m = table.forbidden[b + k]; m != 0; m &= m - 1) {
+                int cell = ((w + k) << 6) + Long.numberOfTrailingZeros(m);
+                for (int j = table.cellStart[cell]; j < table.cellStart[cell + 1]; j++) {
+                    remove(player, table.cellPlacements[j]);
+                }
+            }
+        }
+        int piece = table.piece[id];
+        for (int q = table.pieceStart[piece]; q < table.pieceStart[piece + 1]; q++) {
+            remove(player, q);
+        }
+
+        int remaining = position.remaining[player];
+        for (int k = 0; k < Placements.WINDOW; k++) {
+            for (long m = anchors[w + k] & ~before[k]; m != 0; m &= m - 1) {
+                int cell = ((w + k) << 6) + Long.numberOfTrailingZeros(m);
+                for (int j = table.cellStart[cell]; j < table.cellStart[cell + 1]; j++) {
+                    int q = table.cellPlacements[j];
+                    if ((remaining & (1 << table.piece[q])) != 0 && slot[player][q] == 0
+                            && table.fits(q, position, player)) {
+                        add(player, q);
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * slot holds the position of a move in its list plus one, so zero means absent.
+     */
+    private void add(int player, int id) {
+        if (size[player] == moves[player].length) {
+            int[] grown = new int[size[player] * 2];
+            System.arraycopy(moves[player], 0, grown, 0, size[player]);
+            moves[player] = grown;
+        }
+        moves[player][size[player]++] = id;
+        slot[player][id] = size[player];
+    }
+
+    private void remove(int player, int id) {
+        int s = slot[player][id];
+        if (s == 0) return;
+        int last = moves[player][--size[player]];
+        moves[player][s - 1] = last;
+        slot[player][last] = s;
+        slot[player][id] = 0;
+    }
+}
@@ -0,0 +1,32 @@
+package edu.cornell.blokus;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Reusable move buffers, one per search ply.
+ *
+ * A search asks for the list of its current ply, fills it with Brain.generate and walks it.
+ * Lists grow to the largest move count seen and are never released, so a search settles
+ * into allocating nothing.
+ */
+public class MoveLists {
+    private IntArray[] lists;
+
+    public MoveLists(int plies) {
+        lists = new IntArray[plies];
+    }
+
+    /** Returns the empty list for a ply. */
+    public IntArray get(int ply) {
+        if (ply >= lists.length) {
+            IntArray[] grown = new IntArray[Math.max(ply + 1, lists.length * 2)];
+            System.arraycopy(lists, 0, grown, 0, lists.length);
+            lists = grown;
+        }
+        if (lists[ply] == null) {
+            lists[ply] = new IntArray(512);
+        }
+        lists[ply].clear();
+        return lists[ply];
+    }
+}
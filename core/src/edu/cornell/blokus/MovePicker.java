@@ -0,0 +1,173 @@
+package edu.cornell.blokus;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Hands out the legal moves of a color one at a time, best guesses first, so a search that
+ * cuts off early never generates the rest.
+ *
+ * The stages are: the hinted move, usually from a transposition table; the killer moves of
+ * the ply; pentominoes on contested anchors, which an opponent could also take next; then
+ * everything else. Each placement is still emitted only at the lowest anchor it covers, and a
+ * pentomino whose lowest anchor is contested belongs to the contested stage, so nothing comes
+ * out twice. With a history table the last stage is collected once and handed out highest
+ * history first, picking the best remaining move on each call rather than sorting them all.
+ * Keep one picker per search ply; the position may change between calls as long as it is
+ * back to the same state at each next().
+ */
+public class MovePicker {
+    /** Returned by next() once every move has been handed out */
+    public static final int DONE = -2;
+    public static final int BIG = 5;
+
+    private static final int HINT = 0, KILLER1 = 1, KILLER2 = 2, CONTESTED = 3, REST = 4, SORTED = 5,
+            PASS = 6, FINISHED = 7;
+
+    private final Placements table = Placements.getInstance();
+    private final Bitboard contested = new Bitboard();
+    private final IntArray buffer = new IntArray();
+
+    /** Scores by [player * Placements.count + id], or null to leave the last stage unordered */
+    private int[] history;
+
+    private Position pos;
+    private int player;
+    private int hint, killer1, killer2;
+    private int stage;
+    private int anchor;
+    private int k;
+    private int emitted;
+
+    public void setHistory(int[] history) {
+        this.history = history;
+    }
+
+    /** Starts over for a color, with a move to try first or Brain.PASS for none. */
+    public void reset(Position pos, int player, int hint) {
+        reset(pos, player, hint, Brain.PASS, Brain.PASS);
+    }
+
+    /** Starts over, trying the hint and then the two killers before generating anything. */
+    public void reset(Position pos, int player, int hint, int killer1, int killer2) {
+        this.pos = pos;
+        this.player = player;
+        this.hint = hint;
+        this.killer1 = killer1 == hint ? Brain.PASS : killer1;
+        this.killer2 = killer2 == hint || killer2 == killer1 ? Brain.PASS : killer2;
+        stage = HINT;
+        emitted = 0;
+    }
+
+    /** Returns the next move, Brain.PASS if the color has none at all, then DONE. */
+    public int next() {
+        while (true) {
+            switch (stage) {
+                case HINT:
+                    stage = KILLER1;
+                    if (playable(hint)) {
+                        emitted++;
+                        return hint;
+                    }
+                    hint = Brain.PASS;
+                    break;
+                case KILLER1:
+                    stage = KILLER2;
+                    if (playable(killer1)) {
+                        emitted++;
+                        return killer1;
+                    }
+                    killer1 = Brain.PASS;
+                    break;
+                case KILLER2:
+                    stage = CONTESTED;
+                    contested.clear();
+                    for (int p = 0; p < Position.PLAYERS; p++) {
+                        if (p != player) contested.or(pos.anchors[p]);
+                    }
+                    contested.and(pos.anchors[player]);
+                    begin(contested);
+                    if (playable(killer2)) {
+                        emitted++;
+                        return killer2;
+                    }
+                    killer2 = Brain.PASS;
+                    break;
+                case CONTESTED: {
+                    int id = scan(contested, true);
+                    if (id >= 0) return id;
+                    begin(pos.anchors[player]);
+                    if (history == null) {
+                        stage = REST;
+                    }
+                    else {
+                        buffer.clear();
+                        for (id = scan(pos.anchors[player], false); id >= 0; id = scan(pos.anchors[player], false)) {
+                            buffer.add(id);
+                        }
+                        k = 0;
+                        stage = SORTED;
+                    }
+                    break;
+                }
+                case REST: {
+                    int id = scan(pos.anchors[player], false);
+                    if (id >= 0) return id;
+                    stage = PASS;
+                    break;
+                }
+                case SORTED:
+                    if (k < buffer.size) return best();
+                    stage = PASS;
+                    break;
+                case PASS:
+                    stage = FINISHED;
+                    if (emitted == 0) return Brain.PASS;
+                    break;
+                default:
+                    return DONE;
+            }
+        }
+    }
+
+    private boolean playable(int id) {
+        return id >= 0 && (pos.remaining[player] & (1 << table.piece[id])) != 0 && table.legal(id, pos, player);
+    }
+
+    private void begin(Bitboard anchors) {
+        anchor = anchors.nextSetBit(0);
+        k = anchor < 0 ? 0 : table.cellStart[anchor];
+    }
+
+    /** Resumes the walk over anchors and their placements where the last call left it. */
+    private int scan(Bitboard cells, boolean big) {
+        Bitboard anchors = pos.anchors[player];
+        int remaining = pos.remaining[player];
+        while (anchor >= 0) {
+            int end = table.cellStart[anchor + 1];
+            while (k < end) {
+                int id = table.cellPlacements[k++];
+                if ((remaining & (1 << table.piece[id])) == 0 || id == hint || id == killer1 || id == killer2) continue;
+                boolean pentomino = table.size[id] == BIG;
+                if (big ? !pentomino : pentomino && contested.get(anchor)) continue;
+                if (!table.coversBelow(id, anchors, anchor) && table.fits(id, pos, player)) {
+                    emitted++;
+                    return id;
+                }
+            }
+            anchor = cells.nextSetBit(anchor + 1);
+            if (anchor >= 0) k = table.cellStart[anchor];
+        }
+        return DONE;
+    }
+
+    /** Swaps the buffered move with the highest history to the front of what is left. */
+    private int best() {
+        int base = player * table.count;
+        int b = k;
+        for (int i = k + 1; i < buffer.size; i++) {
+            if (history[base + buffer.get(i)] > history[base + buffer.get(b)]) b = i;
+        }
+        buffer.swap(k, b);
+        return buffer.get(k++);
+    }
+}
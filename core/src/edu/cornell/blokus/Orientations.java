@@ -0,0 +1,121 @@
+package edu.cornell.blokus;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Derives every distinct orientation of a piece from its canonical shape.
+ *
+ * The eight symmetries of the square are numbered 0..7: transform t mirrors x when t >= 4
+ * and then turns the piece t % 4 quarter turns about its origin, so transform 0 is the shape
+ * as written. Orientations are the images under transforms 0..7 in that order, keeping only
+ * the first of any that cover the same cells up to translation, so rotation r of a piece is
+ * always the same orientation. Edge and corner cells are worked out from the solids rather than written down.
+ */
+public class Orientations {
+    public static final int TRANSFORMS = 8;
+
+    /** The x of a cell after a transform. */
+    public static int x(int t, int x, int y) {
+        if (t >= 4) x = -x;
+        switch (t % 4) {
+            case 0: return x;
+            case 1: return -y;
+            case 2: return -x;
+            default: return y;
+        }
+    }
+
+    /** The y of a cell after a transform. */
+    public static int y(int t, int x, int y) {
+        if (t >= 4) x = -x;
+        switch (t % 4) {
+            case 0: return y;
+            case 1: return x;
+            case 2: return -y;
+            default: return -x;
+        }
+    }
+
+    /**
+     * Builds a piece from the solid cells of its canonical shape, given relative to its origin.
+     * The origin is kept only so pieces can be drawn the way they are written.
+     */
+    public static Piece generate(int index, Pair origin, Pair[] cells) {
+        Array<Pair[]> solids = new Array<Pair[]>();
+        for (int t = 0; t < TRANSFORMS; t++) {
+            Pair[] image = new Pair[cells.length];
+            for (int i = 0; i < cells.length; i++) {
+                image[i] = new Pair(x(t, cells[i].x, cells[i].y), y(t, cells[i].x, cells[i].y));
+            }
+            boolean seen = false;
+            for (int r = 0; r < solids.size && !seen; r++) {
+                seen = sameShape(solids.get(r), image);
+            }
+            if (!seen) solids.add(image);
+        }
+
+        IntArray dx = new IntArray(), dy = new IntArray();
+        int[] length = new int[solids.size * Piece.KINDS];
+        for (int r = 0; r < solids.size; r++) {
+            Pair[][] kinds = new Pair[][]{solids.get(r), ring(solids.get(r), false), ring(solids.get(r), true)};
+            for (int k = 0; k < Piece.KINDS; k++) {
+                length[r * Piece.KINDS + k] = kinds[k].length;
+                for (Pair c : kinds[k]) {
+                    dx.add(c.x);
+                    dy.add(c.y);
+                }
+            }
+        }
+        return new Piece(index, origin, dx.toArray(), dy.toArray(), length);
+    }
+
+    /*
+     * Cells next to the shape: those sharing an edge with it, or with corners set, those
+     * touching it only diagonally. Listed row by row like the text they used to be read from.
+     */
+    private static Pair[] ring(Pair[] cells, boolean corners) {
+        int[] box = bounds(cells);
+        Array<Pair> ring = new Array<Pair>();
+        for (int y = box[1] - 1; y <= box[3] + 1; y++) {
+            for (int x = box[0] - 1; x <= box[2] + 1; x++) {
+                if (contains(cells, x, y)) continue;
+                boolean edge = contains(cells, x - 1, y) || contains(cells, x + 1, y)
+                        || contains(cells, x, y - 1) || contains(cells, x, y + 1);
+                boolean corner = contains(cells, x - 1, y - 1) || contains(cells, x + 1, y - 1)
+                        || contains(cells, x - 1, y + 1) || contains(cells, x + 1, y + 1);
+                if (corners ? corner && !edge : edge) ring.add(new Pair(x, y));
+            }
+        }
+        Pair[] result = new Pair[ring.size];
+        for (int i = 0; i < ring.size; i++) result[i] = ring.get(i);
+        return result;
+    }
+
+    /** True if two cell lists cover the same shape, wherever it sits. */
+    private static boolean sameShape(Pair[] a, Pair[] b) {
+        int[] ba = bounds(a), bb = bounds(b);
+        for (Pair c : b) {
+            if (!contains(a, c.x - bb[0] + ba[0], c.y - bb[1] + ba[1])) return false;
+        }
+        return a.length == b.length;
+    }
+
+    private static boolean contains(Pair[] cells, int x, int y) {
+        for (Pair c : cells) {
+            if (c.x == x && c.y == y) return true;
+        }
+        return false;
+    }
+
+    private static int[] bounds(Pair[] cells) {
+        int[] box = new int[]{1000, 1000, -1000, -1000};
+        for (Pair c : cells) {
+            box[0] = Math.min(box[0], c.x);
+            box[1] = Math.min(box[1], c.y);
+            box[2] = Math.max(box[2], c.x);
+            box[3] = Math.max(box[3], c.y);
+        }
+        return box;
+    }
+}
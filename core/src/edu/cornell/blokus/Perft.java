@@ -0,0 +1,79 @@
+package edu.cornell.blokus;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Counts every move sequence from a position to a fixed depth.
+ *
+ * A ply is one turn. A color with no legal placement passes, which counts as its one move,
+ * and a finished game is a leaf however shallow it is. The counts only depend on the rules,
+ * so they are a correctness check for any change to Brain's move generation, and the time
+ * they take is a repeatable throughput number.
+ */
+public class Perft {
+    private final MoveLists lists = new MoveLists(32);
+    private final Position pos = new Position();
+
+    /** Positions visited by the last count, including the root and the leaves */
+    public long nodes;
+
+    public long count(Position root, int depth) {
+        nodes = 0;
+        pos.copyFrom(root);
+        return count(0, depth);
+    }
+
+    /**
+     * Counts from a grid, with the given color to move and remaining[p] the pieces color p
+     * still has in hand, as Brain.remaining gives them for a player area.
+     */
+    public long count(GameMode.Tile[][] grid, int[] remaining, GameMode.Tile toMove, int depth) {
+        Position root = new Position(grid);
+        for (int p = 0; p < Position.PLAYERS; p++) {
+            root.hash ^= Zobrist.pieces(p, root.remaining[p]) ^ Zobrist.pieces(p, remaining[p]);
+            root.remaining[p] = remaining[p];
+        }
+        root.turn = toMove.ordinal();
+        return count(root, depth);
+    }
+
+    private long count(int ply, int depth) {
+        nodes++;
+        if (depth == 0 || pos.isOver()) return 1;
+
+        if (depth == 1) {
+            int n = Brain.countMoves(pos.turn, pos);
+            nodes += Math.max(n, 1);
+            return Math.max(n, 1);
+        }
+
+        IntArray moves = lists.get(ply);
+        Brain.generate(pos, pos.turn, moves);
+        if (moves.size == 0) moves.add(Brain.PASS);
+
+        long leaves = 0;
+        for (int i = 0; i < moves.size; i++) {
+            pos.makeMove(moves.get(i));
+            leaves += count(ply + 1, depth - 1);
+            pos.unmakeMove();
+        }
+        return leaves;
+    }
+
+    /**
+     * Runs perft from the empty board, where every color starts on its corner, and prints
+     * the leaf count and speed for each depth up to the one given (default 3).
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        Perft perft = new Perft();
+        Position start = new Position();
+        for (int d = 1; d <= depth; d++) {
+            long time = System.nanoTime();
+            long leaves = perft.count(start, d);
+            double seconds = (System.nanoTime() - time) / 1e9;
+            System.out.println("depth " + d + ": " + leaves + " leaves, " + perft.nodes + " nodes, "
+                    + (long) (perft.nodes / Math.max(seconds, 1e-9)) + " nodes/s");
+        }
+    }
+}
@@ -1,58 +1,53 @@
 package edu.cornell.blokus;
 
-import com.badlogic.gdx.utils.Array;
-
 /**
  * Created by Tomasz on 4/8/2017.
+ *
+ * The cells of every rotation live in flat arrays, solids first, then edges, then corners,
+ * so loops over a piece walk contiguous ints rather than chasing Pair objects. The cells of
+ * kind k in rotation r are i = start[r * KINDS + k] .. start[r * KINDS + k] + length[..] - 1,
+ * at (dx[i], dy[i]) from the origin, or offset[i] = dx[i] * Bitboard.SIZE + dy[i] cells away
+ * on the board. The offset is only meaningful when both cells are on the board.
  */
 public class Piece {
+    public static final int SOLID = 0, EDGE = 1, CORNER = 2, KINDS = 3;
+
+    public int index;
     public int rotations;
+    /** Squares the piece covers */
+    public int size;
     public Pair origin;
-    public Pair[][] solids, edges, corners;
-
-    public Piece(Array<Array<String>> data, Pair origin){
-        int ox = origin.x;
-        int oy = origin.y;
-        this.origin = new Pair(ox, oy);
-
-        rotations = data.size;
-
-        solids = new Pair[rotations][];
-        edges = new Pair[rotations][];
-        corners = new Pair[rotations][];
+    public int[] dx, dy, offset;
+    public int[] start, length;
 
-        for(int r=0; r<rotations; r++){
-            Array<Pair> solidArray = new Array<Pair>();
-            Array<Pair> edgeArray = new Array<Pair>();
-            Array<Pair> cornerArray = new Array<Pair>();
+    public Piece(int index, Pair origin, int[] dx, int[] dy, int[] length){
+        this.index = index;
+        this.origin = origin;
+        this.dx = dx;
+        this.dy = dy;
+        this.length = length;
+        rotations = length.length / KINDS;
+        size = length[SOLID];
 
-            for(int y=0; y<data.get(r).size; y++){
-                for(int x=0; x<data.get(r).get(y).length(); x++){
-                    char c = data.get(r).get(y).charAt(x);
-                    if(c == 'S'){
-                        solidArray.add(new Pair(x-ox, y-oy));
-                    }
-                    else if(c == 'E'){
-                        edgeArray.add(new Pair(x-ox, y-oy));
-                    }
-                    else if(c == 'C'){
-                        cornerArray.add(new Pair(x-ox, y-oy));
-                    }
-                }
-            }
-
-            solids[r] = makeArray(solidArray);
-            edges[r] = makeArray(edgeArray);
-            corners[r] = makeArray(cornerArray);
+        start = new int[length.length];
+        for(int i=1; i<length.length; i++){
+            start[i] = start[i-1] + length[i-1];
+        }
+        offset = new int[dx.length];
+        for(int i=0; i<dx.length; i++){
+            offset[i] = dx[i] * Bitboard.SIZE + dy[i];
         }
     }
 
-    public Pair[] makeArray(Array<Pair> a){
-        Pair[] pairs = new Pair[a.size];
-        for(int i=0; i<a.size; i++){
-            pairs[i] = a.get(i);
-        }
-        return pairs;
+    /** Index of the first cell of a kind in a rotation. */
+    public int first(int rotation, int kind){
+        return start[rotation * KINDS + kind];
+    }
+
+    /** Index just past the last cell of a kind in a rotation. */
+    public int end(int rotation, int kind){
+        int k = rotation * KINDS + kind;
+        return start[k] + length[k];
     }
 
     public Pair getDimensions(int rotation) {
@@ -60,11 +55,11 @@ public class Piece {
         int ymax = 0;
         int xmin = 1000;
         int ymin = 1000;
-        for (int i = 0; i < edges[rotation].length; i ++) {
-            xmax = Math.max(xmax, edges[rotation][i].x);
-            ymax = Math.max(ymax, edges[rotation][i].y);
-            xmin = Math.min(xmin, edges[rotation][i].x);
-            ymin = Math.min(ymin, edges[rotation][i].y);
+        for (int i = first(rotation, EDGE); i < end(rotation, EDGE); i ++) {
+            xmax = Math.max(xmax, dx[i]);
+            ymax = Math.max(ymax, dy[i]);
+            xmin = Math.min(xmin, dx[i]);
+            ymin = Math.min(ymin, dy[i]);
         }
         return new Pair(xmax - xmin, ymax - ymin);
     }
@@ -76,9 +71,9 @@ public class Piece {
     public Pair getMin(int rotation) {
         int xmin = 1000;
         int ymin = 1000;
-        for (int i = 0; i < edges[rotation].length; i ++) {
-            xmin = Math.min(xmin, edges[rotation][i].x);
-            ymin = Math.min(ymin, edges[rotation][i].y);
+        for (int i = first(rotation, EDGE); i < end(rotation, EDGE); i ++) {
+            xmin = Math.min(xmin, dx[i]);
+            ymin = Math.min(ymin, dy[i]);
         }
         return new Pair(xmin, ymin);
     }
@@ -0,0 +1,100 @@
+package edu.cornell.blokus;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * Compiles data.txt into pieces.bin, so the engine starts without parsing text.
+ *
+ * The file is a header (magic, version, CRC-32 of the data.txt it came from, piece count)
+ * followed, for every piece, by its origin and rotation count and, for every rotation, the
+ * numbers of solid, edge and corner cells and then the cells themselves as packed (dx, dy)
+ * byte pairs, in the order Piece keeps them. Edges and corners are generated at build time,
+ * so loading does no work beyond decoding. A file compiled from a different data.txt is refused, so editing the pieces never
+ * leaves a tool on stale tables. Run through gradlew :core:compilePieces, which the desktop
+ * build depends on.
+ */
+public class PieceCompiler {
+    public static final String BINARY_FILE = "pieces.bin";
+    public static final int MAGIC = 0x424C4B50;
+    public static final int VERSION = 4;
+
+    public static void write(Piece[] plist, byte[] source, DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(checksum(source));
+        out.writeInt(plist.length);
+        for (Piece p : plist) {
+            out.writeByte(p.origin.x);
+            out.writeByte(p.origin.y);
+            out.writeByte(p.rotations);
+            for (int r = 0; r < p.rotations; r++) {
+                for (int k = 0; k < Piece.KINDS; k++) out.writeByte(p.length[r * Piece.KINDS + k]);
+                for (int i = p.first(r, Piece.SOLID); i < p.end(r, Piece.CORNER); i++) {
+                    out.writeByte(p.dx[i]);
+                    out.writeByte(p.dy[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes a compiled table, or returns null if it is not one this version understands or
+     * was compiled from something other than source. Pass a null source to skip that check.
+     */
+    public static Piece[] read(byte[] data, byte[] source) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) return null;
+            int checksum = in.getInt();
+            if (source != null && checksum != checksum(source)) return null;
+            Piece[] plist = new Piece[in.getInt()];
+            for (int i = 0; i < plist.length; i++) {
+                Pair origin = new Pair(in.get(), in.get());
+                int rotations = in.get();
+                int[] length = new int[rotations * Piece.KINDS];
+                IntArray dx = new IntArray(), dy = new IntArray();
+                for (int r = 0; r < rotations; r++) {
+                    int cells = 0;
+                    for (int k = 0; k < Piece.KINDS; k++) cells += length[r * Piece.KINDS + k] = in.get();
+                    for (int c = 0; c < cells; c++) {
+                        dx.add(in.get());
+                        dy.add(in.get());
+                    }
+                }
+                plist[i] = new Piece(i, origin, dx.toArray(), dy.toArray(), length);
+            }
+            return plist;
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    static int checksum(byte[] source) {
+        CRC32 crc = new CRC32();
+        crc.update(source, 0, source.length);
+        return (int) crc.getValue();
+    }
+
+    /** Usage: PieceCompiler [data.txt [pieces.bin]] */
+    public static void main(String[] args) throws IOException {
+        String source = args.length > 0 ? args[0] : Pieces.DATA_FILE;
+        String target = args.length > 1 ? args[1] : BINARY_FILE;
+        byte[] text = Pieces.readAsset(source);
+        if (text == null) throw new IOException("Couldn't load " + source);
+        Piece[] plist = Pieces.parse(new String(text, "UTF-8"));
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(target));
+        try {
+            write(plist, text, out);
+        } finally {
+            out.close();
+        }
+        System.out.println("Wrote " + plist.length + " pieces to " + target + " (" + out.size() + " bytes)");
+    }
+}
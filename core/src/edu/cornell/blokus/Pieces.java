@@ -3,26 +3,32 @@ package edu.cornell.blokus;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.utils.Array;
-
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
 /**
  * Created by Tomasz on 4/8/2017.
+ *
+ * Loads the compiled pieces.bin when it is there and was built from the data.txt next to it,
+ * and falls back to parsing data.txt otherwise.
  */
 public class Pieces {
 
+    static final String DATA_FILE = "data.txt";
+
     private static Pieces instance;
 
     public Piece[] plist;
 
-    public static final Pair[] origins = new Pair[]{new Pair(1,1), new Pair(1,1), new Pair(2,2), new Pair(1,1),
-            new Pair(1,1), new Pair(2,2), new Pair(1,1), new Pair(3,3),
-            new Pair(2,2), new Pair(4,4), new Pair(2,2), new Pair(3,3),
-            new Pair(3,3), new Pair(2,2), new Pair(1,1), new Pair(2,2),
-            new Pair(2,2), new Pair(2,2), new Pair(2,2), new Pair(2,2), new Pair(3,3)};
-
     private Pieces(){
         /*
         String[][][] s = new String[][][]{
@@ -32,37 +38,97 @@ public class Pieces {
         };
         */
 
+        byte[] text = readAsset(DATA_FILE);
+        byte[] binary = readAsset(PieceCompiler.BINARY_FILE);
+        if(binary != null){
+            plist = PieceCompiler.read(binary, text);
+        }
+        if(plist == null){
+            if(text == null){
+                throw new GdxRuntimeException("Couldn't load " + DATA_FILE);
+            }
+            try {
+                plist = parse(new String(text, "UTF-8"));
+            } catch (UnsupportedEncodingException e) {
+                throw new GdxRuntimeException(e);
+            }
+        }
+    }
 
-        FileHandle file = Gdx.files.internal("data.txt");
-        String text = file.readString();
-
+    /**
+     * Builds the pieces from the text of data.txt: the canonical shape of each piece drawn with
+     * S for its cells and O for the one it turns about, the pieces separated by lines of slashes.
+     */
+    public static Piece[] parse(String text){
         String wordsArray[] = text.split("\\r?\\n");
         List<String> list = Arrays.asList(wordsArray);
         Iterator<String> iter = list.iterator();
 
-        plist = new Piece[21];
+        Piece[] plist = new Piece[21];
 
         for(int p=0; p<21; p++){
-            Array<Array<String>> ps = new Array<Array<String>>();
-            int r = 0;
-            ps.add(new Array<String>());
+            Array<Pair> cells = new Array<Pair>();
+            Pair origin = null;
+            int y = 0;
             while(iter.hasNext()){
                 String s = iter.next();
 
                 if(s.charAt(0) == '/'){
-
-                    plist[p] = new Piece(ps, origins[p]);
                     break;
                 }
-                else if(s.charAt(0) == '#'){
-                    r++;
-                    ps.add(new Array<String>());
+                for(int x=0; x<s.length(); x++){
+                    if(s.charAt(x) == 'O'){
+                        origin = new Pair(x, y);
+                    }
+                    if(s.charAt(x) == 'O' || s.charAt(x) == 'S'){
+                        cells.add(new Pair(x, y));
+                    }
                 }
-                else {
+                y++;
+            }
+            if(origin == null){
+                throw new GdxRuntimeException("Piece " + p + " in " + DATA_FILE + " has no origin");
+            }
+            Pair[] shape = new Pair[cells.size];
+            for(int i=0; i<cells.size; i++){
+                shape[i] = new Pair(cells.get(i).x - origin.x, cells.get(i).y - origin.y);
+            }
+            plist[p] = Orientations.generate(p, origin, shape);
+        }
+        return plist;
+    }
 
-                    ps.get(r).add(s);
+    /*
+     * Reads an asset in one go through libGDX when an application is running. Without one
+     * (self-play, servers, benchmarks) it comes from the classpath or the working directory
+     * instead. Returns null if the asset is nowhere to be found.
+     */
+    static byte[] readAsset(String name){
+        if(Gdx.files != null){
+            FileHandle file = Gdx.files.internal(name);
+            return file.exists() ? file.readBytes() : null;
+        }
+        try {
+            InputStream in = Pieces.class.getResourceAsStream("/" + name);
+            if(in == null){
+                File file = new File(name);
+                if(!file.exists()){
+                    return null;
+                }
+                in = new FileInputStream(file);
+            }
+            try {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                for(int n = in.read(buffer); n >= 0; n = in.read(buffer)){
+                    out.write(buffer, 0, n);
                 }
+                return out.toByteArray();
+            } finally {
+                in.close();
             }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't load " + name, e);
         }
     }
 
@@ -0,0 +1,234 @@
+package edu.cornell.blokus;
+
+/**
+ * Every on-board placement of every piece rotation, built once from Pieces.
+ *
+ * A placement is identified by an int id. Ids are grouped by piece, then rotation, then
+ * origin. Each placement carries three masks over a window of WINDOW consecutive Bitboard
+ * words starting at word[id]: the solid cells, the cells sharing an edge with the piece
+ * (forbidden to its own color) and the cells touching it only at a corner. Edge and corner
+ * masks are clipped to the board.
+ */
+public class Placements {
+    /** A piece plus its edge ring spans at most 127 bits, which always fits in three words. */
+    public static final int WINDOW = 3;
+
+    private static Placements instance;
+
+    public final int count;
+    public final int[] piece, rotation, x, y, size;
+    public final int[] word;
+    public final long[] solid, forbidden, corner;
+
+    /** Placements whose solid covers a cell: cellPlacements[cellStart[c] .. cellStart[c+1]) */
+    public final int[] cellStart, cellPlacements;
+    /** Placements of a piece: ids pieceStart[p] .. pieceStart[p+1]-1 */
+    public final int[] pieceStart;
+
+    private final int[] rotationStart;
+    private final int lookupMin, lookupSpan;
+    private final int[] lookup;
+
+    private Placements(Piece[] plist) {
+        int n = 0;
+        int min = 0, max = Bitboard.SIZE;
+        for (Piece p : plist) {
+            for (int r = 0; r < p.rotations; r++) {
+                int[] box = bounds(p, r);
+                n += (Bitboard.SIZE - (box[2] - box[0])) * (Bitboard.SIZE - (box[3] - box[1]));
+                min = Math.min(min, Math.min(-box[0], -box[1]));
+                max = Math.max(max, Math.max(Bitboard.SIZE - box[0], Bitboard.SIZE - box[1]));
+            }
+        }
+        count = n;
+        piece = new int[n];
+        rotation = new int[n];
+        x = new int[n];
+        y = new int[n];
+        size = new int[n];
+        word = new int[n];
+        solid = new long[n * WINDOW];
+        forbidden = new long[n * WINDOW];
+        corner = new long[n * WINDOW];
+        pieceStart = new int[plist.length + 1];
+
+        int orientations = 0;
+        for (Piece p : plist) orientations += p.rotations;
+        rotationStart = new int[plist.length];
+        lookupMin = min;
+        lookupSpan = max - min;
+        lookup = new int[orientations * lookupSpan * lookupSpan];
+        for (int i = 0; i < lookup.length; i++) lookup[i] = -1;
+
+        int[] cellCount = new int[Bitboard.CELLS + 1];
+        int id = 0;
+        int orientation = 0;
+        for (int pi = 0; pi < plist.length; pi++) {
+            Piece p = plist[pi];
+            pieceStart[pi] = id;
+            rotationStart[pi] = orientation;
+            for (int r = 0; r < p.rotations; r++, orientation++) {
+                int[] box = bounds(p, r);
+                for (int ox = -box[0]; ox < Bitboard.SIZE - box[2]; ox++) {
+                    for (int oy = -box[1]; oy < Bitboard.SIZE - box[3]; oy++) {
+                        piece[id] = pi;
+                        rotation[id] = r;
+                        x[id] = ox;
+                        y[id] = oy;
+                        size[id] = p.size;
+                        word[id] = Math.min(lowestCell(p, r, ox, oy) >>> 6, Bitboard.WORDS - WINDOW);
+                        fill(solid, id, p, r, Piece.SOLID, ox, oy);
+                        fill(forbidden, id, p, r, Piece.EDGE, ox, oy);
+                        fill(corner, id, p, r, Piece.CORNER, ox, oy);
+                        int base = Bitboard.index(ox, oy);
+                        for (int i = p.first(r, Piece.SOLID); i < p.end(r, Piece.SOLID); i++) cellCount[base + p.offset[i]]++;
+                        lookup[(orientation * lookupSpan + ox - lookupMin) * lookupSpan + oy - lookupMin] = id;
+                        id++;
+                    }
+                }
+            }
+        }
+        pieceStart[plist.length] = id;
+
+        cellStart = new int[Bitboard.CELLS + 1];
+        for (int c = 0; c < Bitboard.CELLS; c++) cellStart[c + 1] = cellStart[c] + cellCount[c];
+        cellPlacements = new int[cellStart[Bitboard.CELLS]];
+        int[] next = new int[Bitboard.CELLS];
+        System.arraycopy(cellStart, 0, next, 0, Bitboard.CELLS);
+        for (int i = 0; i < count; i++) {
+            Piece p = plist[piece[i]];
+            int base = Bitboard.index(x[i], y[i]);
+            for (int k = p.first(rotation[i], Piece.SOLID); k < p.end(rotation[i], Piece.SOLID); k++) {
+                cellPlacements[next[base + p.offset[k]]++] = i;
+            }
+        }
+    }
+
+    public static Placements getInstance() {
+        if (instance == null) {
+            instance = new Placements(Pieces.getInstance().plist);
+        }
+        return instance;
+    }
+
+    /** Returns the id of a placement, or -1 if it does not lie entirely on the board. */
+    public int find(int piece, int rot, int x, int y) {
+        int lx = x - lookupMin;
+        int ly = y - lookupMin;
+        if (lx < 0 || lx >= lookupSpan || ly < 0 || ly >= lookupSpan) return -1;
+        return lookup[((rotationStart[piece] + rot) * lookupSpan + lx) * lookupSpan + ly];
+    }
+
+    /** Returns the placement of a piece that covers exactly the given cells, or -1. */
+    public int match(int piece, Bitboard cells) {
+        int first = cells.nextSetBit(0);
+        if (first < 0) return -1;
+        for (int k = cellStart[first]; k < cellStart[first + 1]; k++) {
+            int id = cellPlacements[k];
+            if (this.piece[id] == piece && size[id] == cells.cardinality() && solidWithin(id, cells)) return id;
+        }
+        return -1;
+    }
+
+    private boolean solidWithin(int id, Bitboard cells) {
+        int w = word[id];
+        int b = id * WINDOW;
+        for (int k = 0; k < WINDOW; k++) {
+            if ((solid[b + k] & ~cells.words[w + k]) != 0) return false;
+        }
+        return true;
+    }
+
+    /** True if the placement covers only blank cells and shares no edge with its own color. */
+    public boolean fits(int id, Position pos, int player) {
+        long[] occ = pos.occupied.words;
+        long[] own = pos.colors[player].words;
+        int w = word[id];
+        int b = id * WINDOW;
+        for (int k = 0; k < WINDOW; k++) {
+            if ((solid[b + k] & occ[w + k]) != 0 || (forbidden[b + k] & own[w + k]) != 0) return false;
+        }
+        return true;
+    }
+
+    /** True if the placement touches its own color at a corner. */
+    public boolean touches(int id, Position pos, int player) {
+        long[] own = pos.colors[player].words;
+        int w = word[id];
+        int b = id * WINDOW;
+        for (int k = 0; k < WINDOW; k++) {
+            if ((corner[b + k] & own[w + k]) != 0) return true;
+        }
+        return false;
+    }
+
+    /** True if the solid of the placement covers the cell. */
+    public boolean covers(int id, int cell) {
+        int k = (cell >>> 6) - word[id];
+        return k >= 0 && k < WINDOW && (solid[id * WINDOW + k] & (1L << cell)) != 0;
+    }
+
+    /**
+     * True if the placement covers one of the given anchors at a cell below the given one.
+     * Move generators scan anchors in increasing order and only emit a placement at the
+     * lowest anchor it covers, so every placement comes out exactly once.
+     */
+    public boolean coversBelow(int id, Bitboard anchors, int cell) {
+        int w = word[id];
+        int b = id * WINDOW;
+        int last = cell >>> 6;
+        for (int k = 0; k < WINDOW && w + k <= last; k++) {
+            long m = solid[b + k] & anchors.words[w + k];
+            if (w + k == last) m &= (1L << cell) - 1;
+            if (m != 0) return true;
+        }
+        return false;
+    }
+
+    /** Full legality check, including the starting corner for a color without tiles. */
+    public boolean legal(int id, Position pos, int player) {
+        if (!fits(id, pos, player)) return false;
+        if (pos.colors[player].isEmpty()) return covers(id, Position.START[player]);
+        return touches(id, pos, player);
+    }
+
+    public GamePiece toGamePiece(int id, GameMode.Tile color) {
+        return new GamePiece(x[id], y[id], rotation[id], Pieces.getInstance().plist[piece[id]], color);
+    }
+
+    /** Bounding box of the solids of a rotation: min x, min y, max x, max y. */
+    private static int[] bounds(Piece p, int r) {
+        int[] box = new int[]{1000, 1000, -1000, -1000};
+        for (int i = p.first(r, Piece.SOLID); i < p.end(r, Piece.SOLID); i++) {
+            box[0] = Math.min(box[0], p.dx[i]);
+            box[1] = Math.min(box[1], p.dy[i]);
+            box[2] = Math.max(box[2], p.dx[i]);
+            box[3] = Math.max(box[3], p.dy[i]);
+        }
+        return box;
+    }
+
+    private static int lowestCell(Piece p, int r, int ox, int oy) {
+        int low = Bitboard.CELLS;
+        for (int i = p.first(r, Piece.SOLID); i < p.end(r, Piece.CORNER); i++) {
+            int cx = ox + p.dx[i];
+            int cy = oy + p.dy[i];
+            if (cx >= 0 && cx < Bitboard.SIZE && cy >= 0 && cy < Bitboard.SIZE) {
+                low = Math.min(low, Bitboard.index(cx, cy));
+            }
+        }
+        return low;
+    }
+
+    private void fill(long[] masks, int id, Piece p, int r, int kind, int ox, int oy) {
+        int base = id * WINDOW - word[id];
+        for (int k = p.first(r, kind); k < p.end(r, kind); k++) {
+            int cx = ox + p.dx[k];
+            int cy = oy + p.dy[k];
+            if (cx >= 0 && cx < Bitboard.SIZE && cy >= 0 && cy < Bitboard.SIZE) {
+                int i = Bitboard.index(cx, cy);
+                masks[base + (i >>> 6)] |= 1L << i;
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package edu.cornell.blokus;
+
+/**
+ * Plays games out to the end with uniformly random moves, allocating nothing per move.
+ *
+ * A move is drawn by rejection. We pick a random anchor and a random slot below the largest
+ * number of placements covering any cell, and keep the placement in that slot if it is legal
+ * and that anchor is the lowest one it covers. Every legal move is then equally likely. After
+ * MAX_TRIES misses the anchors are scanned in full and one move is kept by reservoir sampling,
+ * which also finds out when the color has to pass. Each thread should own its Playout.
+ */
+public class Playout {
+    public static final int MAX_TRIES = 64;
+
+    public final FastRandom random;
+    /** Games played to the end so far */
+    public long playouts;
+
+    private final Placements table;
+    /** Most placements covering any one cell */
+    private final int widest;
+
+    public Playout(long seed) {
+        random = new FastRandom(seed);
+        table = Placements.getInstance();
+        int w = 0;
+        for (int c = 0; c < Bitboard.CELLS; c++) w = Math.max(w, table.cellStart[c + 1] - table.cellStart[c]);
+        widest = w;
+    }
+
+    /** Plays the position out to the end, in place. */
+    public void run(Position pos) {
+        while (!pos.isOver()) {
+            pos.play(randomMove(pos, pos.turn));
+        }
+        playouts++;
+    }
+
+    /** Returns a uniformly random legal placement for the player, or Brain.PASS. */
+    public int randomMove(Position pos, int player) {
+        Bitboard anchors = pos.anchors[player];
+        int remaining = pos.remaining[player];
+        int count = anchors.cardinality();
+        if (count == 0 || remaining == 0) return Brain.PASS;
+
+        for (int t = 0; t < MAX_TRIES; t++) {
+            int a = anchors.select(random.nextInt(count));
+            int k = table.cellStart[a] + random.nextInt(widest);
+            if (k >= table.cellStart[a + 1]) continue;
+            int id = table.cellPlacements[k];
+            if ((remaining & (1 << table.piece[id])) != 0 && table.fits(id, pos, player)
+                    && !table.coversBelow(id, anchors, a)) {
+                return id;
+            }
+        }
+
+        int chosen = Brain.PASS;
+        int seen = 0;
+        for (int a = anchors.nextSetBit(0); a >= 0; a = anchors.nextSetBit(a + 1)) {
+            for (int k = table.cellStart[a]; k < table.cellStart[a + 1]; k++) {
+                int id = table.cellPlacements[k];
+                if ((remaining & (1 << table.piece[id])) != 0 && !table.coversBelow(id, anchors, a)
+                        && table.fits(id, pos, player) && random.nextInt(++seen) == 0) {
+                    chosen = id;
+                }
+            }
+        }
+        return chosen;
+    }
+
+    /** Plays random games from the empty board for a few seconds (default 5) and prints the rate. */
+    public static void main(String[] args) {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 5;
+        Playout playout = new Playout(System.nanoTime());
+        Position start = new Position();
+        Position pos = new Position();
+        long time = System.nanoTime();
+        long end = time + (long) (seconds * 1e9);
+        while (System.nanoTime() < end) {
+            pos.copyFrom(start);
+            playout.run(pos);
+        }
+        double elapsed = (System.nanoTime() - time) / 1e9;
+        System.out.println(playout.playouts + " playouts in " + String.format("%.1f", elapsed) + " s, "
+                + (long) (playout.playouts / elapsed) + " playouts/s");
+    }
+}
@@ -0,0 +1,276 @@
+package edu.cornell.blokus;
+
+/**
+ * Bitboard view of a board: one Bitboard per color plus the occupied cells.
+ *
+ * Colors are indexed by GameMode.Tile.ordinal(), so BLUE, RED, GREEN, YELLOW are 0..3.
+ * The anchor cells of every color are kept up to date as tiles are added, touching only
+ * the cells around what changed, and so is a Zobrist hash of the cells and pieces in hand.
+ *
+ * Searches walk the tree with makeMove() and unmakeMove() on one Position. Every move pushes
+ * the few anchor and edge words it overwrites onto an undo stack, so taking it back costs
+ * about as much as playing it, and no node is ever copied.
+ */
+public class Position {
+    public static final int PLAYERS = 4;
+    public static final int PIECES = 21;
+    public static final int ALL_PIECES = (1 << PIECES) - 1;
+    /** Bonus for placing every piece */
+    public static final int ALL_PLACED_BONUS = 15;
+
+    /** Starting corner of each color, as a cell index. */
+    public static final int[] START = new int[]{
+            Bitboard.index(0, 0), Bitboard.index(19, 0), Bitboard.index(19, 19), Bitboard.index(0, 19)};
+
+    /** Cells sharing an edge with each cell, and cells touching it only at a corner. */
+    private static final int[][] ORTHOGONAL = new int[Bitboard.CELLS][];
+    private static final int[][] DIAGONAL = new int[Bitboard.CELLS][];
+
+    static {
+        for (int x = 0; x < Bitboard.SIZE; x++) {
+            for (int y = 0; y < Bitboard.SIZE; y++) {
+                ORTHOGONAL[Bitboard.index(x, y)] = neighbours(x, y, new int[][]{{1, 0}, {-1, 0}, {0, 1}, {0, -1}});
+                DIAGONAL[Bitboard.index(x, y)] = neighbours(x, y, new int[][]{{1, 1}, {1, -1}, {-1, 1}, {-1, -1}});
+            }
+        }
+    }
+
+    public final Bitboard[] colors = new Bitboard[PLAYERS];
+    public final Bitboard occupied = new Bitboard();
+    /** Blank cells where each color may place its next piece */
+    public final Bitboard[] anchors = new Bitboard[PLAYERS];
+    /** Cells sharing an edge with each color, which that color may never cover */
+    public final Bitboard[] edges = new Bitboard[PLAYERS];
+    /** Pieces each color has not placed yet, as a bit mask over Piece.index */
+    public final int[] remaining = new int[PLAYERS];
+    /** Color to move, for code that plays whole turns through play() */
+    public int turn;
+    /** Consecutive passes; once every color has passed in a row the game is over */
+    public int passes;
+    /** Zobrist hash of the colored cells and the pieces in hand; see key() */
+    public long hash;
+    /** Squares covered by each color */
+    public final int[] squares = new int[PLAYERS];
+
+    /*
+     * Undo stack, one entry per makeMove(). Each entry keeps the move, the turn and passes
+     * before it, the hash, whether it was the color's first piece, and the anchor windows of
+     * every color followed by the mover's edge window.
+     */
+    private static final int UNDO_WORDS = (PLAYERS + 1) * Placements.WINDOW;
+    private int undoSize;
+    private int[] undoMove = new int[128];
+    private int[] undoState = new int[128];
+    private long[] undoHash = new long[128];
+    private long[] undoWords = new long[128 * UNDO_WORDS];
+
+    public Position() {
+        for (int p = 0; p < PLAYERS; p++) {
+            colors[p] = new Bitboard();
+            anchors[p] = new Bitboard();
+            edges[p] = new Bitboard();
+            anchors[p].set(START[p]);
+            remaining[p] = ALL_PIECES;
+            hash ^= Zobrist.pieces(p, ALL_PIECES);
+        }
+    }
+
+    public Position(GameMode.Tile[][] grid) {
+        this();
+        for (int x = 0; x < Bitboard.SIZE; x++) {
+            for (int y = 0; y < Bitboard.SIZE; y++) {
+                if (grid[x][y] != GameMode.Tile.BLANK) {
+                    set(x, y, grid[x][y]);
+                }
+            }
+        }
+    }
+
+    /** Colors a blank cell and updates the anchors around it. */
+    public void set(int x, int y, GameMode.Tile tile) {
+        int i = Bitboard.index(x, y);
+        int c = tile.ordinal();
+        if (colors[c].isEmpty()) anchors[c].clear();
+        colors[c].set(i);
+        occupied.set(i);
+        squares[c]++;
+        hash ^= Zobrist.CELL[c * Bitboard.CELLS + i];
+        for (int p = 0; p < PLAYERS; p++) {
+            anchors[p].clear(i);
+        }
+        for (int n : ORTHOGONAL[i]) {
+            edges[c].set(n);
+            anchors[c].clear(n);
+        }
+        for (int n : DIAGONAL[i]) {
+            if (!occupied.get(n) && !edges[c].get(n)) anchors[c].set(n);
+        }
+    }
+
+    /** Plays a placement from Placements for a color, updating only the words it spans. */
+    public void place(int id, int player) {
+        Placements table = Placements.getInstance();
+        if (colors[player].isEmpty()) anchors[player].clear();
+        int w = table.word[id];
+        int b = id * Placements.WINDOW;
+        long[] own = colors[player].words;
+        long[] occ = occupied.words;
+        long[] edge = edges[player].words;
+        long[] anchor = anchors[player].words;
+        for (int k = 0; k < Placements.WINDOW; k++) {
+            long s = table.solid[b + k];
+            for (long m = s; m != 0; m &= m - 1) {
+                hash ^= Zobrist.CELL[player * Bitboard.CELLS + ((w + k) << 6) + Long.numberOfTrailingZeros(m)];
+            }
+            own[w + k] |= s;
+            occ[w + k] |= s;
+            for (int p = 0; p < PLAYERS; p++) {
+                anchors[p].words[w + k] &= ~s;
+            }
+            edge[w + k] |= table.forbidden[b + k];
+            anchor[w + k] = (anchor[w + k] | table.corner[b + k]) & ~edge[w + k] & ~occ[w + k];
+        }
+        remaining[player] &= ~(1 << table.piece[id]);
+        squares[player] += table.size[id];
+        hash ^= Zobrist.PIECE[player * PIECES + table.piece[id]];
+    }
+
+    /** Plays a move or Brain.PASS for the color to move and hands the turn on. */
+    public void play(int move) {
+        if (move == Brain.PASS) {
+            passes++;
+        }
+        else {
+            place(move, turn);
+            passes = 0;
+        }
+        turn = (turn + 1) % PLAYERS;
+    }
+
+    /** Plays a move or Brain.PASS like play(), remembering how to take it back. */
+    public void makeMove(int move) {
+        if (undoSize == undoMove.length) growUndo();
+        int u = undoSize++;
+        undoMove[u] = move;
+        undoHash[u] = hash;
+        int state = turn | passes << 2;
+        if (move != Brain.PASS) {
+            Placements table = Placements.getInstance();
+            int w = table.word[move];
+            int b = u * UNDO_WORDS;
+            for (int p = 0; p < PLAYERS; p++) {
+                System.arraycopy(anchors[p].words, w, undoWords, b + p * Placements.WINDOW, Placements.WINDOW);
+            }
+            System.arraycopy(edges[turn].words, w, undoWords, b + PLAYERS * Placements.WINDOW, Placements.WINDOW);
+            if (colors[turn].isEmpty()) {
+                state |= anchors[turn].get(START[turn]) ? 3 << 5 : 1 << 5;
+            }
+        }
+        undoState[u] = state;
+        play(move);
+    }
+
+    /** Takes back the last makeMove(). */
+    public void unmakeMove() {
+        int u = --undoSize;
+        int move = undoMove[u];
+        int state = undoState[u];
+        turn = state & 3;
+        passes = (state >>> 2) & 7;
+        hash = undoHash[u];
+        if (move == Brain.PASS) return;
+
+        Placements table = Placements.getInstance();
+        int w = table.word[move];
+        int b = u * UNDO_WORDS;
+        int bb = move * Placements.WINDOW;
+        long[] own = colors[turn].words;
+        long[] occ = occupied.words;
+        for (int k = 0; k < Placements.WINDOW; k++) {
+            own[w + k] &= ~table.solid[bb + k];
+            occ[w + k] &= ~table.solid[bb + k];
+        }
+        for (int p = 0; p < PLAYERS; p++) {
+            System.arraycopy(undoWords, b + p * Placements.WINDOW, anchors[p].words, w, Placements.WINDOW);
+        }
+        System.arraycopy(undoWords, b + PLAYERS * Placements.WINDOW, edges[turn].words, w, Placements.WINDOW);
+        if ((state & 1 << 5) != 0) {
+            anchors[turn].clear();
+            if ((state & 1 << 6) != 0) anchors[turn].set(START[turn]);
+        }
+        remaining[turn] |= 1 << table.piece[move];
+        squares[turn] -= table.size[move];
+    }
+
+    private void growUndo() {
+        int n = undoMove.length * 2;
+        int[] move = new int[n];
+        int[] state = new int[n];
+        long[] h = new long[n];
+        long[] words = new long[n * UNDO_WORDS];
+        System.arraycopy(undoMove, 0, move, 0, undoSize);
+        System.arraycopy(undoState, 0, state, 0, undoSize);
+        System.arraycopy(undoHash, 0, h, 0, undoSize);
+        System.arraycopy(undoWords, 0, words, 0, undoSize * UNDO_WORDS);
+        undoMove = move;
+        undoState = state;
+        undoHash = h;
+        undoWords = words;
+    }
+
+    /** No color can place a piece once it has passed, so four passes in a row end the game. */
+    public boolean isOver() {
+        return passes >= PLAYERS;
+    }
+
+    /** Squares covered, plus the bonus once every piece is down. */
+    public int score(int player) {
+        return squares[player] + (remaining[player] == 0 ? ALL_PLACED_BONUS : 0);
+    }
+
+    /** Copies the state of another position. The undo stack is emptied, not copied. */
+    public void copyFrom(Position other) {
+        occupied.copyFrom(other.occupied);
+        for (int p = 0; p < PLAYERS; p++) {
+            colors[p].copyFrom(other.colors[p]);
+            anchors[p].copyFrom(other.anchors[p]);
+            edges[p].copyFrom(other.edges[p]);
+            remaining[p] = other.remaining[p];
+            squares[p] = other.squares[p];
+        }
+        turn = other.turn;
+        passes = other.passes;
+        hash = other.hash;
+        undoSize = 0;
+    }
+
+    /** Hash of the whole position, including whose turn it is and the passes so far. */
+    public long key() {
+        return hash ^ Zobrist.TURN[turn] ^ Zobrist.PASSES[Math.min(passes, PLAYERS)];
+    }
+
+    public GameMode.Tile get(int x, int y) {
+        int i = Bitboard.index(x, y);
+        if (occupied.get(i)) {
+            for (int p = 0; p < PLAYERS; p++) {
+                if (colors[p].get(i)) return GameMode.Tile.values()[p];
+            }
+        }
+        return GameMode.Tile.BLANK;
+    }
+
+    private static int[] neighbours(int x, int y, int[][] offsets) {
+        int n = 0;
+        int[] cells = new int[offsets.length];
+        for (int[] o : offsets) {
+            int nx = x + o[0];
+            int ny = y + o[1];
+            if (nx >= 0 && nx < Bitboard.SIZE && ny >= 0 && ny < Bitboard.SIZE) {
+                cells[n++] = Bitboard.index(nx, ny);
+            }
+        }
+        int[] result = new int[n];
+        System.arraycopy(cells, 0, result, 0, n);
+        return result;
+    }
+}
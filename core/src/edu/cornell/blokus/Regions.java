@@ -0,0 +1,280 @@
+package edu.cornell.blokus;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Splits the blank cells of a position into regions and, when the regions are independent,
+ * works out every color's final score without searching the game.
+ *
+ * Only live cells matter: blank cells some color that can still move may cover, that is,
+ * not on the edge of its own tiles. A color without a legal move never gets one back, so it
+ * is left out. Regions are the components of live cells under 8-neighbourhood, found with
+ * union-find. A placement, the live cells on its edges and its corner cells always lie in one
+ * region, so play in one region never changes what is legal in another, and a color can only
+ * ever play in regions where it has anchors now. When no region has anchors of two colors,
+ * nobody can get in anybody's way any more. Each color's regions are then searched on their
+ * own for every set of pieces that fits in them, and the sets are combined across regions,
+ * disjoint from each other, for the most squares. Regions shared by several colors are not
+ * split up, and callers fall back to searching them jointly. Most moves leave most regions
+ * as they were, so the piece sets of a region are cached under a key made of its cells, the
+ * color's anchors and edges in it and the pieces the color holds.
+ */
+public class Regions {
+    /** Positions a single region search may visit before giving up */
+    public static final int MAX_NODES = 2000;
+
+    private final Placements table = Placements.getInstance();
+    private final int[] parent = new int[Bitboard.CELLS];
+    /** Region of every cell after build(), or -1 for a cell that is not live */
+    public final int[] region = new int[Bitboard.CELLS];
+    public int count;
+    /** Colors with anchors in each region, as a bit mask over color */
+    public final int[] owners = new int[Bitboard.CELLS];
+    /** Colors that still have a legal move, as found by the last build() */
+    public int active;
+
+    private final Bitboard live = new Bitboard();
+    private final Bitboard usable = new Bitboard();
+    private final Bitboard cells = new Bitboard();
+    private final Bitboard local = new Bitboard();
+    private final int[] pieceSize = new int[Position.PIECES];
+
+    /* Piece sets found so far, as a list plus a bit set over all 2^PIECES sets */
+    private final IntArray masks = new IntArray();
+    private final IntArray combined = new IntArray();
+    private final IntArray next = new IntArray();
+    private final long[] seenMask = new long[(1 << Position.PIECES) / 64];
+
+    /* Positions visited by the current region search, open addressing on Position.hash */
+    private final long[] visited = new long[1 << 16];
+    private final int[] visitedStamp = new int[1 << 16];
+    private int stamp;
+    private int nodes;
+
+    /* Direct-mapped cache of region searches; a size of -1 means the search gave up */
+    private static final int CACHE_SIZE = 1 << 12, CACHE_MASKS = 64;
+    private final long[] cacheKey = new long[CACHE_SIZE];
+    private final int[] cacheCount = new int[CACHE_SIZE];
+    private final int[] cacheMasks = new int[CACHE_SIZE * CACHE_MASKS];
+
+    public Regions() {
+        for (int p = 0; p < Position.PIECES; p++) pieceSize[p] = table.size[table.pieceStart[p]];
+    }
+
+    /** Finds the regions of a position and which colors can play in each. */
+    public void build(Position pos) {
+        build(pos, (1 << Position.PLAYERS) - 1);
+    }
+
+    /**
+     * Same, for a position whose colors outside the given mask are known to have no moves,
+     * such as one reached from a position where they had none. Proving a color has no move
+     * is the slow part, so searches pass down what they found.
+     */
+    public void build(Position pos, int candidates) {
+        active = 0;
+        live.clear();
+        for (int p = 0; p < Position.PLAYERS; p++) {
+            if ((candidates & 1 << p) == 0 || !Brain.hasAnyMove(p, pos)) continue;
+            active |= 1 << p;
+            usable.copyFrom(pos.occupied);
+            usable.or(pos.edges[p]);
+            for (int k = 0; k < Bitboard.WORDS; k++) live.words[k] |= ~usable.words[k] & Bitboard.BOARD[k];
+        }
+        for (int c = 0; c < Bitboard.CELLS; c++) {
+            parent[c] = -1;
+            region[c] = -1;
+        }
+        for (int c = live.nextSetBit(0); c >= 0; c = live.nextSetBit(c + 1)) {
+            parent[c] = c;
+            int x = c / Bitboard.SIZE, y = c % Bitboard.SIZE;
+            if (y > 0) join(c, c - 1);
+            if (x > 0) {
+                join(c, c - Bitboard.SIZE);
+                if (y > 0) join(c, c - Bitboard.SIZE - 1);
+                if (y + 1 < Bitboard.SIZE) join(c, c - Bitboard.SIZE + 1);
+            }
+        }
+        count = 0;
+        for (int c = live.nextSetBit(0); c >= 0; c = live.nextSetBit(c + 1)) {
+            int root = find(c);
+            if (region[root] < 0) {
+                owners[count] = 0;
+                region[root] = count++;
+            }
+            region[c] = region[root];
+        }
+        for (int p = 0; p < Position.PLAYERS; p++) {
+            if ((active & 1 << p) == 0) continue;
+            Bitboard anchors = pos.anchors[p];
+            for (int a = anchors.nextSetBit(0); a >= 0; a = anchors.nextSetBit(a + 1)) {
+                owners[region[a]] |= 1 << p;
+            }
+        }
+    }
+
+    /**
+     * Fills in every color's final score if the regions are independent, and returns false
+     * without a result if a region is shared or too large to search alone. Call build() first.
+     */
+    public boolean finalScores(Position pos, int[] scores) {
+        for (int r = 0; r < count; r++) {
+            if (Integer.bitCount(owners[r]) > 1) return false;
+        }
+        for (int p = 0; p < Position.PLAYERS; p++) {
+            int best = bestSquares(pos, p);
+            if (best < 0) return false;
+            int placed = pos.squares[p] + best;
+            scores[p] = placed + (best == squaresOf(pos.remaining[p]) ? Position.ALL_PLACED_BONUS : 0);
+        }
+        return true;
+    }
+
+    /** Most squares a color can still add over all of its regions, or -1 if a search gave up. */
+    private int bestSquares(Position pos, int player) {
+        combined.clear();
+        combined.add(0);
+        for (int r = 0; r < count; r++) {
+            if (owners[r] != 1 << player) continue;
+            cells.clear();
+            for (int c = 0; c < Bitboard.CELLS; c++) {
+                if (region[c] == r) cells.set(c);
+            }
+            if (!pieceSets(pos, player)) return -1;
+
+            next.clear();
+            for (int i = 0; i < combined.size; i++) {
+                int a = combined.get(i);
+                for (int j = 0; j < masks.size; j++) {
+                    int b = masks.get(j);
+                    if ((a & b) == 0 && mark(a | b)) next.add(a | b);
+                }
+            }
+            unmark(next);
+            combined.clear();
+            combined.addAll(next);
+        }
+        int best = 0;
+        for (int i = 0; i < combined.size; i++) best = Math.max(best, squaresOf(combined.get(i)));
+        return best;
+    }
+
+    /** Collects in masks every set of pieces the color can place inside cells. */
+    private boolean pieceSets(Position pos, int player) {
+        masks.clear();
+        long key = regionKey(pos, player);
+        int slot = (int) (key >>> 40) & (CACHE_SIZE - 1);
+        if (cacheKey[slot] == key && cacheCount[slot] != 0) {
+            int n = cacheCount[slot];
+            if (n < 0) return false;
+            masks.addAll(cacheMasks, slot * CACHE_MASKS, n);
+            return true;
+        }
+
+        stamp++;
+        nodes = 0;
+        int turn = pos.turn;
+        int passes = pos.passes;
+        boolean done = search(pos, player, pos.remaining[player]);
+        pos.turn = turn;
+        pos.passes = passes;
+        unmark(masks);
+        if (!done || masks.size <= CACHE_MASKS) {
+            cacheKey[slot] = key;
+            cacheCount[slot] = done ? masks.size : -1;
+            if (done) System.arraycopy(masks.items, 0, cacheMasks, slot * CACHE_MASKS, masks.size);
+        }
+        return done;
+    }
+
+    private long regionKey(Position pos, int player) {
+        long h = player * 31L + pos.remaining[player];
+        long[] anchors = pos.anchors[player].words;
+        long[] edges = pos.edges[player].words;
+        for (int k = 0; k < Bitboard.WORDS; k++) {
+            long c = cells.words[k];
+            h = mix(h ^ c);
+            h = mix(h ^ (anchors[k] & c));
+            h = mix(h ^ (edges[k] & c));
+        }
+        return h;
+    }
+
+    private static long mix(long h) {
+        h *= 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private boolean search(Position pos, int player, int start) {
+        if (++nodes > MAX_NODES) return false;
+        if (!visit(pos.hash)) return true;
+        int used = start & ~pos.remaining[player];
+        if (mark(used)) masks.add(used);
+
+        local.copyFrom(pos.anchors[player]);
+        local.and(cells);
+        Bitboard anchors = pos.anchors[player];
+        int remaining = pos.remaining[player];
+        for (int a = local.nextSetBit(0); a >= 0; a = local.nextSetBit(a + 1)) {
+            for (int k = table.cellStart[a]; k < table.cellStart[a + 1]; k++) {
+                int id = table.cellPlacements[k];
+                if ((remaining & (1 << table.piece[id])) == 0 || table.coversBelow(id, anchors, a)
+                        || !table.fits(id, pos, player)) {
+                    continue;
+                }
+                pos.turn = player;
+                pos.makeMove(id);
+                boolean done = search(pos, player, start);
+                pos.unmakeMove();
+                if (!done) return false;
+                local.copyFrom(pos.anchors[player]);
+                local.and(cells);
+            }
+        }
+        return true;
+    }
+
+    /** Records a position as visited; false if it already was. */
+    private boolean visit(long hash) {
+        int mask = visited.length - 1;
+        for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+            if (visitedStamp[i] != stamp) {
+                visitedStamp[i] = stamp;
+                visited[i] = hash;
+                return true;
+            }
+            if (visited[i] == hash) return false;
+        }
+    }
+
+    private boolean mark(int set) {
+        long bit = 1L << set;
+        if ((seenMask[set >>> 6] & bit) != 0) return false;
+        seenMask[set >>> 6] |= bit;
+        return true;
+    }
+
+    private void unmark(IntArray sets) {
+        for (int i = 0; i < sets.size; i++) seenMask[sets.get(i) >>> 6] = 0;
+    }
+
+    private int squaresOf(int set) {
+        int n = 0;
+        for (int m = set; m != 0; m &= m - 1) n += pieceSize[Integer.numberOfTrailingZeros(m)];
+        return n;
+    }
+
+    private int find(int c) {
+        while (parent[c] != c) {
+            parent[c] = parent[parent[c]];
+            c = parent[c];
+        }
+        return c;
+    }
+
+    private void join(int a, int b) {
+        if (parent[b] < 0) return;
+        int ra = find(a), rb = find(b);
+        if (ra != rb) parent[ra] = rb;
+    }
+}
@@ -3,22 +3,21 @@ package edu.cornell.blokus;
 
 import com.badlogic.gdx.utils.Array;
 
-import java.util.Random;
-
 /**
  * Created by Tomasz on 5/12/2017.
  */
 public class Testing {
     public static Array<GamePiece> possibleMoves;
-    public static Random random = new Random();
     public static GamePiece gamePiece;
     public static int gpi = 0;
 
-    public static void init(PlayerArea pa, GameMode.Tile[][] grid){
-        possibleMoves = Brain.getAllFirstMoves(pa, grid);
-        grid[10][10] = GameMode.Tile.BLUE;
-        grid[10][11] = GameMode.Tile.BLUE;
-        grid[10][12] = GameMode.Tile.BLUE;
+    public static void init(PlayerArea pa, Board board){
+        possibleMoves = Brain.getAllFirstMoves(pa, board.position);
+        for(int y=10; y<=12; y++){
+            board.grid[10][y] = GameMode.Tile.BLUE;
+            board.position.set(10, y, GameMode.Tile.BLUE);
+        }
+        board.moves.rebuild();
     }
 
     public static void getNextPiece(){
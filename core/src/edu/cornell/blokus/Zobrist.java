@@ -0,0 +1,38 @@
+package edu.cornell.blokus;
+
+import java.util.Random;
+
+/**
+ * Random keys for hashing positions. Position.hash is the xor of the keys of every colored
+ * cell and every piece still in hand, so it can be updated by xoring in what changed, and
+ * undoing a change is the same xor again. Turn and passes are mixed in by Position.key().
+ */
+public class Zobrist {
+    /** Key of a cell covered by a color, at [color * CELLS + cell] */
+    public static final long[] CELL = new long[Position.PLAYERS * Bitboard.CELLS];
+    /** Key of a piece still held by a color, at [color * PIECES + piece] */
+    public static final long[] PIECE = new long[Position.PLAYERS * Position.PIECES];
+    public static final long[] TURN = new long[Position.PLAYERS];
+    public static final long[] PASSES = new long[Position.PLAYERS + 1];
+
+    static {
+        Random random = new Random(0x5EEDB10CL);
+        fill(CELL, random);
+        fill(PIECE, random);
+        fill(TURN, random);
+        fill(PASSES, random);
+    }
+
+    private static void fill(long[] keys, Random random) {
+        for (int i = 0; i < keys.length; i++) keys[i] = random.nextLong();
+    }
+
+    /** Hash of a color holding the given pieces. */
+    public static long pieces(int player, int remaining) {
+        long h = 0;
+        for (int m = remaining; m != 0; m &= m - 1) {
+            h ^= PIECE[player * Position.PIECES + Integer.numberOfTrailingZeros(m)];
+        }
+        return h;
+    }
+}
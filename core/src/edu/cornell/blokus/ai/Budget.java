@@ -0,0 +1,37 @@
+package edu.cornell.blokus.ai;
+
+/**
+ * How long a search may run: a wall-clock limit, a node limit, or both.
+ */
+public class Budget {
+    public final long millis;
+    public final long nodes;
+
+    private long deadline;
+
+    public Budget(long millis, long nodes) {
+        this.millis = millis;
+        this.nodes = nodes;
+    }
+
+    public static Budget time(long millis) {
+        return new Budget(millis, Long.MAX_VALUE);
+    }
+
+    public static Budget nodes(long nodes) {
+        return new Budget(Long.MAX_VALUE / 2000000, nodes);
+    }
+
+    /** Starts the clock. Searches call this once before they begin. */
+    public void start() {
+        deadline = System.nanoTime() + millis * 1000000L;
+    }
+
+    public boolean exhausted(long searched) {
+        return searched >= nodes || System.nanoTime() >= deadline;
+    }
+
+    public long remainingNanos() {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+}
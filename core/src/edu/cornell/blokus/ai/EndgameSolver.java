@@ -0,0 +1,165 @@
+package edu.cornell.blokus.ai;
+
+import edu.cornell.blokus.Brain;
+import edu.cornell.blokus.MovePicker;
+import edu.cornell.blokus.Position;
+import edu.cornell.blokus.Regions;
+
+/**
+ * Searches late positions to the end of the game and plays the move with the best final
+ * score margin over the strongest opponent, assuming the opponents play together against
+ * the mover as in paranoid search.
+ *
+ * The tree is walked with make/unmake and MovePickers, and every position solved goes into
+ * a transposition table whatever its depth, since a result to the end is exact. A search the
+ * budget cuts short leaves solved false, and its move is only a guess. Once the blank cells
+ * have split into regions that each only one color can reach, the final scores follow from
+ * Regions without searching the rest of the game.
+ */
+public class EndgameSolver implements Search {
+    /** Use the solver once all colors together have at most this many legal moves */
+    public static final int DEFAULT_MOVES = 16;
+    public static final int DEFAULT_TABLE_MB = 16;
+
+    private final TranspositionTable table;
+    private final Position pos = new Position();
+    private final Regions regions = new Regions();
+    private final int[] finals = new int[Position.PLAYERS];
+    private MovePicker[] pickers = new MovePicker[0];
+    /** Colors that may still have moves at each ply; a color that had none never gets one */
+    private int[] active = new int[0];
+
+    private Budget budget;
+    private SearchStats stats;
+    private boolean aborted;
+    private int rootPlayer;
+    private int rootBest;
+
+    /** Score independent regions directly rather than searching them; switch off to compare */
+    public boolean decompose = true;
+    /** Whether the last search reached the end of every line */
+    public boolean solved;
+    /** Final margin of the last solved search, for the color that moved */
+    public int value;
+
+    public EndgameSolver() {
+        this(new TranspositionTable(DEFAULT_TABLE_MB));
+    }
+
+    public EndgameSolver(TranspositionTable table) {
+        this.table = table;
+    }
+
+    @Override
+    public int choose(Position root, Budget budget, SearchStats stats) {
+        long start = System.nanoTime();
+        budget.start();
+        stats.reset();
+        this.budget = budget;
+        this.stats = stats;
+        table.newSearch();
+
+        rootPlayer = root.turn;
+        rootBest = Brain.PASS;
+        aborted = false;
+        pos.copyFrom(root);
+        picker(0);
+        active[0] = (1 << Position.PLAYERS) - 1;
+        int result = solve(0, -Integer.MAX_VALUE, Integer.MAX_VALUE);
+        solved = !aborted;
+        value = solved ? result : 0;
+        if (rootBest == Brain.PASS) {
+            MovePicker picker = picker(0);
+            picker.reset(root, rootPlayer, Brain.PASS);
+            rootBest = picker.next();
+        }
+        stats.nanos = System.nanoTime() - start;
+        return rootBest;
+    }
+
+    private int solve(int ply, int alpha, int beta) {
+        stats.nodes++;
+        // Every node, as in MultiplayerSearch: nodes this late are slow enough to overshoot otherwise
+        if (!aborted && budget.exhausted(stats.nodes)) aborted = true;
+        if (aborted) return 0;
+        stats.depth = Math.max(stats.depth, ply);
+        if (pos.isOver()) {
+            for (int p = 0; p < Position.PLAYERS; p++) finals[p] = pos.score(p);
+            return margin(finals);
+        }
+
+        long key = pos.key() ^ MultiplayerSearch.VIEW[rootPlayer];
+        int hint = Brain.PASS;
+        if (table.probe(key)) {
+            hint = table.move();
+            if (ply > 0) {
+                int v = table.value(0);
+                int bound = table.bound();
+                if (bound == TranspositionTable.EXACT) return v;
+                if (bound == TranspositionTable.LOWER) alpha = Math.max(alpha, v);
+                if (bound == TranspositionTable.UPPER) beta = Math.min(beta, v);
+                if (alpha >= beta) return v;
+            }
+        }
+
+        picker(ply + 1);
+        active[ply + 1] = active[ply];
+        if (decompose) {
+            regions.build(pos, active[ply]);
+            active[ply + 1] = regions.active;
+            if (ply > 0 && regions.finalScores(pos, finals)) {
+                int v = margin(finals);
+                table.store(key, 0, TranspositionTable.EXACT, Brain.PASS, v);
+                return v;
+            }
+        }
+
+        int alpha0 = alpha, beta0 = beta;
+        boolean max = pos.turn == rootPlayer;
+        int best = max ? -Integer.MAX_VALUE : Integer.MAX_VALUE;
+        int bestMove = Brain.PASS;
+        MovePicker picker = picker(ply);
+        picker.reset(pos, pos.turn, hint);
+        for (int move = picker.next(); move != MovePicker.DONE; move = picker.next()) {
+            pos.makeMove(move);
+            int v = solve(ply + 1, alpha, beta);
+            pos.unmakeMove();
+            if (aborted) return 0;
+            if (max ? v > best : v < best) {
+                best = v;
+                bestMove = move;
+                if (ply == 0) rootBest = move;
+            }
+            if (max) alpha = Math.max(alpha, v);
+            else beta = Math.min(beta, v);
+            if (alpha >= beta) break;
+        }
+        int bound = best <= alpha0 ? TranspositionTable.UPPER
+                : best >= beta0 ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(key, 0, bound, bestMove, best);
+        return best;
+    }
+
+    /** The root color's final score minus the best of the others. */
+    private int margin(int[] scores) {
+        int best = Integer.MIN_VALUE;
+        for (int p = 0; p < Position.PLAYERS; p++) {
+            if (p != rootPlayer) best = Math.max(best, scores[p]);
+        }
+        return scores[rootPlayer] - best;
+    }
+
+    /** Pickers are made the first time a ply is reached and reused after that. */
+    private MovePicker picker(int ply) {
+        if (ply >= pickers.length) {
+            MovePicker[] grown = new MovePicker[Math.max(ply + 1, pickers.length * 2)];
+            System.arraycopy(pickers, 0, grown, 0, pickers.length);
+            for (int i = pickers.length; i < grown.length; i++) grown[i] = new MovePicker();
+            pickers = grown;
+            int[] a = new int[grown.length];
+            System.arraycopy(active, 0, a, 0, active.length);
+            active = a;
+        }
+        return pickers[ply];
+    }
+}
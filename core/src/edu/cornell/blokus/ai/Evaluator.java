@@ -0,0 +1,10 @@
+package edu.cornell.blokus.ai;
+
+import edu.cornell.blokus.Position;
+
+/**
+ * Static score of a position from one color's point of view; higher is better.
+ */
+public interface Evaluator {
+    int evaluate(Position pos, int player);
+}
@@ -0,0 +1,52 @@
+package edu.cornell.blokus.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+import edu.cornell.blokus.Brain;
+import edu.cornell.blokus.Position;
+
+import java.util.Random;
+
+/**
+ * Plays every legal move once and keeps the one the evaluator likes best. Noise makes the
+ * choice looser for easier opponents. When the budget runs out the best move so far is played.
+ */
+public class GreedySearch implements Search {
+    private final Evaluator evaluator;
+    private final int noise;
+    private final Random random;
+    private final IntArray moves = new IntArray();
+    private final Position scratch = new Position();
+
+    public GreedySearch(Evaluator evaluator, int noise, long seed) {
+        this.evaluator = evaluator;
+        this.noise = noise;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public int choose(Position pos, Budget budget, SearchStats stats) {
+        long start = System.nanoTime();
+        budget.start();
+        stats.reset();
+        stats.depth = 1;
+
+        int player = pos.turn;
+        Brain.generate(pos, player, moves);
+        scratch.copyFrom(pos);
+        int best = Brain.PASS;
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < moves.size; i++) {
+            scratch.makeMove(moves.get(i));
+            int score = evaluator.evaluate(scratch, player) + (noise > 0 ? random.nextInt(noise) : 0);
+            scratch.unmakeMove();
+            stats.nodes++;
+            if (score > bestScore) {
+                bestScore = score;
+                best = moves.get(i);
+            }
+            if (budget.exhausted(stats.nodes)) break;
+        }
+        stats.nanos = System.nanoTime() - start;
+        return best;
+    }
+}
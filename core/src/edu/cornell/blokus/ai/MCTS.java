@@ -0,0 +1,146 @@
+package edu.cornell.blokus.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+import edu.cornell.blokus.Brain;
+import edu.cornell.blokus.FastRandom;
+import edu.cornell.blokus.Playout;
+import edu.cornell.blokus.Position;
+
+/**
+ * Monte Carlo tree search with UCT selection for the four-color game.
+ *
+ * Every node keeps a reward total for each color, and selection at a node maximises the reward
+ * of the color to move there, so each color plays for itself. A Playout ends the game with
+ * uniformly random moves and pays each color its Rewards share. The budget counts playouts,
+ * so Budget.nodes(n) gives n playouts per move and Budget.time(ms) a fixed think time.
+ */
+public class MCTS implements Search {
+    public static final double DEFAULT_EXPLORATION = 0.7;
+
+    static class Node {
+        final Node parent;
+        /** Move that led here, played by the parent's color to move */
+        final int move;
+        Node[] children;
+        int childCount;
+        /** Moves not expanded yet; null until the node is first reached */
+        IntArray untried;
+        int visits;
+        final double[] reward = new double[Position.PLAYERS];
+
+        Node(Node parent, int move) {
+            this.parent = parent;
+            this.move = move;
+        }
+    }
+
+    private final double exploration;
+    private final Playout playout;
+    private final FastRandom random;
+    private final Position scratch = new Position();
+    private final IntArray moves = new IntArray();
+    private final double[] result = new double[Position.PLAYERS];
+    private Node root;
+
+    public MCTS(long seed) {
+        this(seed, DEFAULT_EXPLORATION);
+    }
+
+    public MCTS(long seed, double exploration) {
+        this.exploration = exploration;
+        this.playout = new Playout(seed);
+        this.random = playout.random;
+    }
+
+    @Override
+    public int choose(Position pos, Budget budget, SearchStats stats) {
+        long start = System.nanoTime();
+        budget.start();
+        stats.reset();
+
+        Brain.generate(pos, pos.turn, moves);
+        if (moves.size <= 1) {
+            root = null;
+            stats.nanos = System.nanoTime() - start;
+            return moves.size == 0 ? Brain.PASS : moves.get(0);
+        }
+
+        root = new Node(null, Brain.PASS);
+        while (!budget.exhausted(stats.nodes)) {
+            scratch.copyFrom(pos);
+            int depth = 0;
+
+            Node node = root;
+            while (node.untried != null && node.untried.size == 0 && node.childCount > 0) {
+                node = select(node, scratch.turn);
+                scratch.play(node.move);
+                depth++;
+            }
+
+            if (!scratch.isOver()) {
+                if (node.untried == null) expandable(node, scratch);
+                if (node.untried.size > 0) {
+                    int i = random.nextInt(node.untried.size);
+                    int move = node.untried.removeIndex(i);
+                    Node child = new Node(node, move);
+                    node.children[node.childCount++] = child;
+                    scratch.play(move);
+                    node = child;
+                    depth++;
+                }
+            }
+
+            playout.run(scratch);
+            Rewards.of(scratch, result);
+            for (Node n = node; n != null; n = n.parent) {
+                n.visits++;
+                for (int p = 0; p < Position.PLAYERS; p++) n.reward[p] += result[p];
+            }
+            stats.nodes++;
+            stats.depth = Math.max(stats.depth, depth);
+        }
+
+        Node best = null;
+        for (int i = 0; i < root.childCount; i++) {
+            if (best == null || root.children[i].visits > best.visits) best = root.children[i];
+        }
+        stats.nanos = System.nanoTime() - start;
+        return best == null ? moves.get(0) : best.move;
+    }
+
+    /** Children of the last search's root, for merging several searches; 0 if it did not search. */
+    public int rootChildren() {
+        return root == null ? 0 : root.childCount;
+    }
+
+    public int rootMove(int i) {
+        return root.children[i].move;
+    }
+
+    public int rootVisits(int i) {
+        return root.children[i].visits;
+    }
+
+    private Node select(Node node, int player) {
+        double logVisits = Math.log(node.visits);
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < node.childCount; i++) {
+            Node c = node.children[i];
+            double value = c.reward[player] / c.visits + exploration * Math.sqrt(logVisits / c.visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    /** A color without legal placements has exactly one move, the pass. */
+    private void expandable(Node node, Position pos) {
+        node.untried = new IntArray();
+        Brain.generate(pos, pos.turn, node.untried);
+        if (node.untried.size == 0) node.untried.add(Brain.PASS);
+        node.children = new Node[node.untried.size];
+    }
+}
@@ -0,0 +1,248 @@
+package edu.cornell.blokus.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+import edu.cornell.blokus.Brain;
+import edu.cornell.blokus.MoveLists;
+import edu.cornell.blokus.MovePicker;
+import edu.cornell.blokus.Placements;
+import edu.cornell.blokus.Position;
+
+import java.util.Random;
+
+/**
+ * Deterministic depth-limited search for four players, deepened one ply at a time until the
+ * budget runs out, so a best move is always ready.
+ *
+ * PARANOID assumes the three opponents play together to minimise the mover's evaluation,
+ * which turns the game into two sides and allows alpha-beta cutoffs. MAXN lets every color
+ * maximise its own evaluation, which is more realistic but cannot prune. An iteration the
+ * deadline interrupts is thrown away. Positions already scored deeply enough come from the
+ * transposition table, and otherwise the move stored there is tried first. Paranoid search
+ * pulls moves from a MovePicker, so a cutoff saves generating the rest. Moves that caused a
+ * cutoff are tried early elsewhere too: as killers at the same ply, and through a history
+ * score per color and placement that grows with the depth of each cutoff.
+ */
+public class MultiplayerSearch implements Search {
+    public enum Mode {PARANOID, MAXN}
+
+    /** Value of a won game, before the final score margin is added */
+    public static final int WIN = 100000;
+    public static final int MAX_DEPTH = 64;
+    public static final int DEFAULT_TABLE_MB = 16;
+    /** Paranoid values depend on whose view they take, so that is mixed into the key */
+    static final long[] VIEW = new long[Position.PLAYERS];
+
+    static {
+        Random random = new Random(0x7AB1EL);
+        for (int p = 0; p < Position.PLAYERS; p++) VIEW[p] = random.nextLong();
+    }
+
+    private final Mode mode;
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    private final MoveLists lists = new MoveLists(MAX_DEPTH);
+    private final MovePicker[] pickers = new MovePicker[MAX_DEPTH + 1];
+    private final Position pos = new Position();
+    private final int[][] values = new int[MAX_DEPTH + 1][Position.PLAYERS];
+    /** Two killer moves per ply, at [ply * 2] and [ply * 2 + 1] */
+    private final int[] killers = new int[(MAX_DEPTH + 1) * 2];
+    /** Cutoff history by [color * Placements.count + placement id] */
+    private final int[] history;
+
+    /** Killer and history ordering; switch off to measure what it saves */
+    public boolean ordering = true;
+    /** Deepest iteration to run, whatever the budget */
+    public int depthLimit = MAX_DEPTH;
+
+    private Budget budget;
+    private SearchStats stats;
+    private boolean aborted;
+    private int rootPlayer;
+    private int rootBest;
+
+    public MultiplayerSearch(Mode mode, Evaluator evaluator) {
+        this(mode, evaluator, new TranspositionTable(DEFAULT_TABLE_MB));
+    }
+
+    public MultiplayerSearch(Mode mode, Evaluator evaluator, TranspositionTable table) {
+        this.mode = mode;
+        this.evaluator = evaluator;
+        this.table = table;
+        for (int i = 0; i < pickers.length; i++) pickers[i] = new MovePicker();
+        history = new int[Position.PLAYERS * Placements.getInstance().count];
+    }
+
+    @Override
+    public int choose(Position root, Budget budget, SearchStats stats) {
+        long start = System.nanoTime();
+        budget.start();
+        stats.reset();
+        this.budget = budget;
+        this.stats = stats;
+        table.newSearch();
+        for (int i = 0; i < killers.length; i++) killers[i] = Brain.PASS;
+        for (int i = 0; i < history.length; i++) history[i] >>= 1;
+        for (MovePicker picker : pickers) picker.setHistory(ordering ? history : null);
+
+        IntArray moves = new IntArray();
+        Brain.generate(root, root.turn, moves);
+        if (moves.size <= 1) {
+            stats.nanos = System.nanoTime() - start;
+            return moves.size == 0 ? Brain.PASS : moves.get(0);
+        }
+
+        rootPlayer = root.turn;
+        int best = moves.get(0);
+        aborted = false;
+        for (int depth = 1; depth <= depthLimit && !aborted; depth++) {
+            pos.copyFrom(root);
+            rootBest = best;
+            if (mode == Mode.PARANOID) {
+                paranoid(0, depth, -Integer.MAX_VALUE, Integer.MAX_VALUE);
+            }
+            else {
+                maxn(0, depth);
+            }
+            if (!aborted) {
+                best = rootBest;
+                stats.depth = depth;
+            }
+        }
+        stats.nanos = System.nanoTime() - start;
+        return best;
+    }
+
+    /*
+     * Looks at the clock on every node. Late in the game a node can cost tens of microseconds,
+     * mostly proving that colors have no move left, so checking every few hundred nodes let
+     * searches run milliseconds past the deadline.
+     */
+    private boolean outOfTime() {
+        if (!aborted && budget.exhausted(stats.nodes)) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    /** Generates the moves of a ply, with the hinted move first. */
+    private IntArray moves(int ply, int hint) {
+        IntArray moves = lists.get(ply);
+        Brain.generate(pos, pos.turn, moves);
+        if (moves.size == 0) {
+            moves.add(Brain.PASS);
+        }
+        else if (hint != Brain.PASS) {
+            int i = moves.indexOf(hint);
+            if (i > 0) moves.swap(0, i);
+        }
+        return moves;
+    }
+
+    private int paranoid(int ply, int depth, int alpha, int beta) {
+        stats.nodes++;
+        if (outOfTime()) return 0;
+        if (pos.isOver()) return terminal(pos, rootPlayer);
+        if (depth == 0) return evaluator.evaluate(pos, rootPlayer);
+
+        long key = pos.key() ^ VIEW[rootPlayer];
+        int hint = ply == 0 ? rootBest : Brain.PASS;
+        if (table.probe(key)) {
+            if (ply > 0) hint = table.move();
+            if (ply > 0 && table.depth() >= depth) {
+                int value = table.value(0);
+                int bound = table.bound();
+                if (bound == TranspositionTable.EXACT) return value;
+                if (bound == TranspositionTable.LOWER) alpha = Math.max(alpha, value);
+                if (bound == TranspositionTable.UPPER) beta = Math.min(beta, value);
+                if (alpha >= beta) return value;
+            }
+        }
+
+        int alpha0 = alpha, beta0 = beta;
+        boolean max = pos.turn == rootPlayer;
+        int best = max ? -Integer.MAX_VALUE : Integer.MAX_VALUE;
+        int bestMove = Brain.PASS;
+        MovePicker picker = pickers[ply];
+        if (ordering) picker.reset(pos, pos.turn, hint, killers[ply * 2], killers[ply * 2 + 1]);
+        else picker.reset(pos, pos.turn, hint);
+        for (int move = picker.next(); move != MovePicker.DONE; move = picker.next()) {
+            pos.makeMove(move);
+            int value = paranoid(ply + 1, depth - 1, alpha, beta);
+            pos.unmakeMove();
+            if (aborted) return 0;
+            if (max ? value > best : value < best) {
+                best = value;
+                bestMove = move;
+            }
+            if (max) alpha = Math.max(alpha, value);
+            else beta = Math.min(beta, value);
+            if (alpha >= beta) {
+                if (ordering && move != hint) cutoff(ply, depth, move);
+                break;
+            }
+        }
+        if (ply == 0) rootBest = bestMove;
+        int bound = best <= alpha0 ? TranspositionTable.UPPER
+                : best >= beta0 ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(key, depth, bound, bestMove, best);
+        return best;
+    }
+
+    private void cutoff(int ply, int depth, int move) {
+        if (move == Brain.PASS) return;
+        if (killers[ply * 2] != move) {
+            killers[ply * 2 + 1] = killers[ply * 2];
+            killers[ply * 2] = move;
+        }
+        history[pos.turn * Placements.getInstance().count + move] += depth * depth;
+    }
+
+    /** Leaves the value of the position for every color in values[ply]. */
+    private void maxn(int ply, int depth) {
+        int[] result = values[ply];
+        stats.nodes++;
+        if (outOfTime()) return;
+        if (pos.isOver()) {
+            for (int p = 0; p < Position.PLAYERS; p++) result[p] = terminal(pos, p);
+            return;
+        }
+        if (depth == 0) {
+            for (int p = 0; p < Position.PLAYERS; p++) result[p] = evaluator.evaluate(pos, p);
+            return;
+        }
+
+        long key = pos.key();
+        if (table.probe(key) && table.depth() >= depth) {
+            for (int p = 0; p < Position.PLAYERS; p++) result[p] = table.value(p);
+            if (ply == 0) rootBest = table.move();
+            return;
+        }
+
+        int player = pos.turn;
+        int bestMove = Brain.PASS;
+        IntArray moves = moves(ply, ply == 0 ? rootBest : Brain.PASS);
+        for (int i = 0; i < moves.size; i++) {
+            pos.makeMove(moves.get(i));
+            maxn(ply + 1, depth - 1);
+            pos.unmakeMove();
+            if (aborted) return;
+            int[] value = values[ply + 1];
+            if (i == 0 || value[player] > result[player]) {
+                System.arraycopy(value, 0, result, 0, Position.PLAYERS);
+                bestMove = moves.get(i);
+            }
+        }
+        if (ply == 0) rootBest = bestMove;
+        table.store(key, depth, TranspositionTable.EXACT, bestMove, result);
+    }
+
+    /** Won or lost by the final margin over the best opponent. */
+    static int terminal(Position pos, int player) {
+        int best = Integer.MIN_VALUE;
+        for (int p = 0; p < Position.PLAYERS; p++) {
+            if (p != player) best = Math.max(best, pos.score(p));
+        }
+        int margin = pos.score(player) - best;
+        return margin > 0 ? WIN + margin : margin < 0 ? -WIN + margin : 0;
+    }
+}
@@ -0,0 +1,201 @@
+package edu.cornell.blokus.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+import edu.cornell.blokus.Brain;
+import edu.cornell.blokus.Placements;
+import edu.cornell.blokus.Playout;
+import edu.cornell.blokus.Position;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tree-parallel version of MCTS: every worker thread walks and grows one shared tree.
+ *
+ * Node statistics are plain atomics, so no thread ever blocks on another. A thread adds a
+ * virtual loss to each node it passes on the way down, which makes that path look worse to
+ * the other threads until its playout is backed up, so they spread over the tree instead
+ * of piling onto the same leaf. A node is expanded by whichever thread first wins a
+ * compare-and-set on its state; the others play out from it as a leaf meanwhile.
+ */
+public class ParallelMCTS implements Search {
+    /** Visits added on the way down and taken back, with the real result, on the way up */
+    public static final int VIRTUAL_LOSS = 3;
+    /** Rewards are kept as fixed point longs so they can be added atomically */
+    private static final double SCALE = 1 << 20;
+
+    private static final int LEAF = 0, EXPANDING = 1, EXPANDED = 2;
+
+    static final class Node {
+        static final AtomicIntegerFieldUpdater<Node> VISITS = AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+        static final AtomicIntegerFieldUpdater<Node> STATE = AtomicIntegerFieldUpdater.newUpdater(Node.class, "state");
+
+        final Node parent;
+        final int move;
+        volatile int visits;
+        volatile int state;
+        /** Written once by the expanding thread before state becomes EXPANDED */
+        Node[] children;
+        final AtomicLongArray reward = new AtomicLongArray(Position.PLAYERS);
+
+        Node(Node parent, int move) {
+            this.parent = parent;
+            this.move = move;
+        }
+    }
+
+    private final int threads;
+    private final double exploration;
+    private final long seed;
+    private final ExecutorService pool;
+
+    public ParallelMCTS(int threads, long seed) {
+        this(threads, seed, MCTS.DEFAULT_EXPLORATION);
+    }
+
+    public ParallelMCTS(int threads, long seed, double exploration) {
+        this.threads = threads;
+        this.seed = seed;
+        this.exploration = exploration;
+        Placements.getInstance();
+        pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "mcts");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /** Stops the worker threads. The search cannot be used afterwards. */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Override
+    public int choose(final Position pos, final Budget budget, SearchStats stats) {
+        long start = System.nanoTime();
+        budget.start();
+        stats.reset();
+
+        IntArray moves = new IntArray();
+        Brain.generate(pos, pos.turn, moves);
+        if (moves.size <= 1) {
+            stats.nanos = System.nanoTime() - start;
+            return moves.size == 0 ? Brain.PASS : moves.get(0);
+        }
+
+        final Node root = new Node(null, Brain.PASS);
+        final AtomicLong playouts = new AtomicLong();
+        final int[] depths = new int[threads];
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        depths[id] = new Worker(seed * 31 + id).run(root, pos, budget, playouts);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Node best = null;
+        Node[] children = root.state == EXPANDED ? root.children : new Node[0];
+        for (Node c : children) {
+            if (best == null || c.visits > best.visits) best = c;
+        }
+        stats.nodes = playouts.get();
+        for (int d : depths) stats.depth = Math.max(stats.depth, d);
+        stats.nanos = System.nanoTime() - start;
+        return best == null ? moves.get(0) : best.move;
+    }
+
+    private class Worker {
+        final Playout playout;
+        final Position scratch = new Position();
+        final IntArray moves = new IntArray();
+        final double[] result = new double[Position.PLAYERS];
+
+        Worker(long seed) {
+            playout = new Playout(seed);
+        }
+
+        int run(Node root, Position pos, Budget budget, AtomicLong playouts) {
+            int maxDepth = 0;
+            while (!budget.exhausted(playouts.get())) {
+                scratch.copyFrom(pos);
+                int depth = 0;
+
+                Node node = root;
+                Node.VISITS.addAndGet(node, VIRTUAL_LOSS);
+                while (node.state == EXPANDED && !scratch.isOver()) {
+                    node = select(node, scratch.turn);
+                    Node.VISITS.addAndGet(node, VIRTUAL_LOSS);
+                    scratch.play(node.move);
+                    depth++;
+                }
+                if (!scratch.isOver() && node.visits > VIRTUAL_LOSS && Node.STATE.compareAndSet(node, LEAF, EXPANDING)) {
+                    expand(node, scratch);
+                }
+
+                playout.run(scratch);
+                Rewards.of(scratch, result);
+                for (Node n = node; n != null; n = n.parent) {
+                    Node.VISITS.addAndGet(n, 1 - VIRTUAL_LOSS);
+                    for (int p = 0; p < Position.PLAYERS; p++) {
+                        n.reward.addAndGet(p, (long) (result[p] * SCALE));
+                    }
+                }
+                playouts.incrementAndGet();
+                maxDepth = Math.max(maxDepth, depth);
+            }
+            return maxDepth;
+        }
+
+        /** Unvisited children come first; otherwise UCT on the mover's reward. */
+        Node select(Node node, int player) {
+            Node[] children = node.children;
+            double logVisits = Math.log(Math.max(node.visits, 1));
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            int offset = playout.random.nextInt(children.length);
+            for (int i = 0; i < children.length; i++) {
+                Node c = children[(i + offset) % children.length];
+                int visits = c.visits;
+                if (visits == 0) return c;
+                double value = c.reward.get(player) / SCALE / visits + exploration * Math.sqrt(logVisits / visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        void expand(Node node, Position pos) {
+            Brain.generate(pos, pos.turn, moves);
+            if (moves.size == 0) moves.add(Brain.PASS);
+            Node[] children = new Node[moves.size];
+            for (int i = 0; i < moves.size; i++) {
+                children[i] = new Node(node, moves.get(i));
+            }
+            node.children = children;
+            node.state = EXPANDED;
+        }
+    }
+}
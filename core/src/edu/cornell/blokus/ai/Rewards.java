@@ -0,0 +1,26 @@
+package edu.cornell.blokus.ai;
+
+import edu.cornell.blokus.Position;
+
+/**
+ * Payoff of a finished game for every color: the colors with the best score share one point.
+ */
+public class Rewards {
+    public static void of(Position pos, double[] reward) {
+        int best = Integer.MIN_VALUE;
+        int winners = 0;
+        for (int p = 0; p < Position.PLAYERS; p++) {
+            int score = pos.score(p);
+            if (score > best) {
+                best = score;
+                winners = 1;
+            }
+            else if (score == best) {
+                winners++;
+            }
+        }
+        for (int p = 0; p < Position.PLAYERS; p++) {
+            reward[p] = pos.score(p) == best ? 1.0 / winners : 0;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package edu.cornell.blokus.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+import edu.cornell.blokus.Brain;
+import edu.cornell.blokus.Placements;
+import edu.cornell.blokus.Position;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Root-parallel MCTS: every worker grows its own tree from the same position with its own
+ * random seed, and the root visit counts are summed when the budget runs out. The workers
+ * share nothing while they search, so throughput grows almost linearly with cores.
+ *
+ * A node budget is split evenly between the workers, and each gets a time budget of its own
+ * that ends with the caller's.
+ */
+public class RootParallelMCTS implements Search {
+    private final MCTS[] workers;
+    private final SearchStats[] workerStats;
+    private final ExecutorService pool;
+    private final IntIntMap visits = new IntIntMap();
+
+    public RootParallelMCTS(int threads, long seed) {
+        Placements.getInstance();
+        workers = new MCTS[threads];
+        workerStats = new SearchStats[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new MCTS(seed * 31 + t);
+            workerStats[t] = new SearchStats();
+        }
+        pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "mcts-root");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /** Stops the worker threads. The search cannot be used afterwards. */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Override
+    public int choose(final Position pos, final Budget budget, SearchStats stats) {
+        long start = System.nanoTime();
+        budget.start();
+        stats.reset();
+
+        IntArray moves = new IntArray();
+        Brain.generate(pos, pos.turn, moves);
+        if (moves.size <= 1) {
+            stats.nanos = System.nanoTime() - start;
+            return moves.size == 0 ? Brain.PASS : moves.get(0);
+        }
+
+        final long nodes = budget.nodes == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(1, budget.nodes / workers.length);
+        final CountDownLatch done = new CountDownLatch(workers.length);
+        for (int t = 0; t < workers.length; t++) {
+            final int id = t;
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        // Each worker gets its own budget ending when ours does, however late it starts
+                        Budget share = new Budget(budget.remainingNanos() / 1000000L, nodes);
+                        workers[id].choose(pos, share, workerStats[id]);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        visits.clear();
+        for (int t = 0; t < workers.length; t++) {
+            MCTS w = workers[t];
+            for (int i = 0; i < w.rootChildren(); i++) {
+                visits.getAndIncrement(w.rootMove(i), 0, w.rootVisits(i));
+            }
+            stats.nodes += workerStats[t].nodes;
+            stats.depth = Math.max(stats.depth, workerStats[t].depth);
+        }
+
+        int best = moves.get(0);
+        int bestVisits = -1;
+        for (IntIntMap.Entry e : visits.entries()) {
+            if (e.value > bestVisits) {
+                bestVisits = e.value;
+                best = e.key;
+            }
+        }
+        stats.nanos = System.nanoTime() - start;
+        return best;
+    }
+}
@@ -0,0 +1,14 @@
+package edu.cornell.blokus.ai;
+
+import edu.cornell.blokus.Position;
+
+/**
+ * Picks a move for the color to move in a position.
+ */
+public interface Search {
+    /**
+     * Returns a Placements id, or Brain.PASS if the color to move has no legal placement.
+     * The position is left as it was given. Implementations must return within the budget.
+     */
+    int choose(Position pos, Budget budget, SearchStats stats);
+}
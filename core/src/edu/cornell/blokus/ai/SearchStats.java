@@ -0,0 +1,25 @@
+package edu.cornell.blokus.ai;
+
+/**
+ * What the last search did: positions visited, depth reached and time taken.
+ */
+public class SearchStats {
+    public long nodes;
+    public int depth;
+    public long nanos;
+
+    public void reset() {
+        nodes = 0;
+        depth = 0;
+        nanos = 0;
+    }
+
+    public long nodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1000000000L / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return nodes + " nodes, depth " + depth + ", " + (nanos / 1000000) + " ms, " + nodesPerSecond() + " nodes/s";
+    }
+}
@@ -0,0 +1,21 @@
+package edu.cornell.blokus.ai;
+
+import edu.cornell.blokus.Position;
+
+/**
+ * Squares on the board plus room to grow, measured in anchors, against the opponents' room.
+ * Only counts bits, so it is cheap enough to call at every node.
+ */
+public class SimpleEvaluator implements Evaluator {
+    public static final int SQUARE = 4;
+
+    @Override
+    public int evaluate(Position pos, int player) {
+        int score = SQUARE * pos.squares[player] + pos.anchors[player].cardinality();
+        int opponents = 0;
+        for (int p = 0; p < Position.PLAYERS; p++) {
+            if (p != player) opponents += pos.anchors[p].cardinality();
+        }
+        return score - opponents / (Position.PLAYERS - 1);
+    }
+}
@@ -0,0 +1,123 @@
+package edu.cornell.blokus.ai;
+
+import edu.cornell.blokus.Position;
+
+/**
+ * Fixed-size table of searched positions, keyed by Position.key().
+ *
+ * Entries live in two-slot buckets spread over parallel primitive arrays, so the table never
+ * allocates after construction. A new entry takes the slot of the same position if there is
+ * one; otherwise it goes to a slot left by an earlier search, and failing that to the slot
+ * searched less deeply. Each entry holds a value for every color, for max-n, and paranoid
+ * search uses the first.
+ */
+public class TranspositionTable {
+    public static final int EXACT = 0, LOWER = 1, UPPER = 2;
+
+    /** Key, packed data and one int per color */
+    private static final int ENTRY_BYTES = 8 + 8 + 4 * Position.PLAYERS;
+
+    private static final int MOVE_BITS = 20, DEPTH_BITS = 8, BOUND_BITS = 2, AGE_BITS = 8;
+    private static final int DEPTH_SHIFT = MOVE_BITS;
+    private static final int BOUND_SHIFT = DEPTH_SHIFT + DEPTH_BITS;
+    private static final int AGE_SHIFT = BOUND_SHIFT + BOUND_BITS;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int[] values;
+    private final int mask;
+    private int age;
+
+    /** Set by probe(): the slot found, or -1 */
+    private int found;
+
+    /** Sizes the table to the largest power of two number of entries within the budget. */
+    public TranspositionTable(int megabytes) {
+        long entries = Math.max(2, (long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+        int size = Integer.highestOneBit((int) Math.min(entries, 1 << 26));
+        keys = new long[size];
+        data = new long[size];
+        values = new int[size * Position.PLAYERS];
+        mask = (size - 1) & ~1;
+    }
+
+    /** Marks the entries stored so far as old, so the next search may overwrite them first. */
+    public void newSearch() {
+        age = (age + 1) & ((1 << AGE_BITS) - 1);
+    }
+
+    public void clear() {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 0;
+            data[i] = 0;
+        }
+    }
+
+    /** Looks a position up; the getters below then describe the entry found. */
+    public boolean probe(long key) {
+        int b = (int) key & mask;
+        found = keys[b] == key && data[b] != 0 ? b : keys[b + 1] == key && data[b + 1] != 0 ? b + 1 : -1;
+        return found >= 0;
+    }
+
+    /** Move stored with the entry found, or Brain.PASS if there is none. */
+    public int move() {
+        return found < 0 ? -1 : (int) (data[found] & ((1 << MOVE_BITS) - 1)) - 1;
+    }
+
+    public int depth() {
+        return (int) (data[found] >>> DEPTH_SHIFT) & ((1 << DEPTH_BITS) - 1);
+    }
+
+    public int bound() {
+        return (int) (data[found] >>> BOUND_SHIFT) & ((1 << BOUND_BITS) - 1);
+    }
+
+    public int value(int player) {
+        return values[found * Position.PLAYERS + player];
+    }
+
+    /** Stores a single value, for searches that keep one. */
+    public void store(long key, int depth, int bound, int move, int value) {
+        int slot = slot(key, depth);
+        if (slot < 0) return;
+        write(slot, key, depth, bound, move);
+        values[slot * Position.PLAYERS] = value;
+    }
+
+    /** Stores a value for every color. */
+    public void store(long key, int depth, int bound, int move, int[] value) {
+        int slot = slot(key, depth);
+        if (slot < 0) return;
+        write(slot, key, depth, bound, move);
+        System.arraycopy(value, 0, values, slot * Position.PLAYERS, Position.PLAYERS);
+    }
+
+    private int slot(long key, int depth) {
+        int b = (int) key & mask;
+        if (keys[b] == key || data[b] == 0) return b;
+        if (keys[b + 1] == key || data[b + 1] == 0) return b + 1;
+        boolean stale0 = age(b) != age;
+        boolean stale1 = age(b + 1) != age;
+        if (stale0 != stale1) return stale0 ? b : b + 1;
+        int shallow = depth(b) <= depth(b + 1) ? b : b + 1;
+        return stale0 || depth(shallow) <= depth ? shallow : -1;
+    }
+
+    private void write(int slot, long key, int depth, int bound, int move) {
+        keys[slot] = key;
+        data[slot] = (move + 1)
+                | (long) Math.min(depth, (1 << DEPTH_BITS) - 1) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) age << AGE_SHIFT
+                | 1L << 63;
+    }
+
+    private int age(int slot) {
+        return (int) (data[slot] >>> AGE_SHIFT) & ((1 << AGE_BITS) - 1);
+    }
+
+    private int depth(int slot) {
+        return (int) (data[slot] >>> DEPTH_SHIFT) & ((1 << DEPTH_BITS) - 1);
+    }
+}